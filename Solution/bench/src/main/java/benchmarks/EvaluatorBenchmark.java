@@ -0,0 +1,112 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import problems.qbf.QBF;
+import problems.qbf.matrix.CoefficientMatrix;
+import problems.qbfpt.QBFPT;
+import problems.qbfpt.QBFPT_Inverse;
+import solutions.Solution;
+
+/**
+ * Benchmarks of the QBFPT objective function: the full evaluation, the
+ * evaluation of the insertion and exchange moves and the feasibility test,
+ * all of them on a random feasible solution of each shipped instance and for
+ * each storage layout of the coefficients. The move queries cycle through the
+ * elements, so each call evaluates a different move. The VECTOR layout only
+ * differs from SYMMETRIC from {@link CoefficientMatrix#VECTOR_MIN_SIZE}
+ * variables on, so it is left out of the defaults and measured on larger
+ * instances with -p layout=VECTOR -p instance=....
+ * 
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class EvaluatorBenchmark {
+
+	@Param({ "020", "040", "060", "080", "100", "200", "400" })
+	public String instance;
+
+	@Param({ "SYMMETRIC", "PACKED", "SPARSE" })
+	public CoefficientMatrix.Layout layout;
+
+	private QBFPT qbfpt;
+
+	private Solution<Integer> sol;
+
+	/**
+	 * the elements out of and in the solution.
+	 */
+	private int[] outside, inside;
+
+	private int nextIn, nextOut, nextElem;
+
+	@Setup
+	public void setup() throws IOException {
+		QBF.matrixLayout = layout;
+		qbfpt = new QBFPT_Inverse(Instances.path(instance));
+		sol = Instances.randomSolution(qbfpt);
+
+		int n = qbfpt.getDomainSize();
+		inside = new int[sol.size()];
+		outside = new int[n - sol.size()];
+		for (int i = 0, in = 0, out = 0; i < n; i++) {
+			if (sol.contains(i))
+				inside[in++] = i;
+			else
+				outside[out++] = i;
+		}
+	}
+
+	private int nextIn() {
+		int elem = outside[nextIn];
+		nextIn = (nextIn + 1 == outside.length) ? 0 : nextIn + 1;
+		return elem;
+	}
+
+	private int nextOut() {
+		int elem = inside[nextOut];
+		nextOut = (nextOut + 1 == inside.length) ? 0 : nextOut + 1;
+		return elem;
+	}
+
+	@Benchmark
+	public Double evaluate() {
+		return qbfpt.evaluate(sol);
+	}
+
+	@Benchmark
+	public Double evaluateInsertionCost() {
+		return qbfpt.evaluateInsertionCost(nextIn(), sol);
+	}
+
+	@Benchmark
+	public Double evaluateExchangeCost() {
+		return qbfpt.evaluateExchangeCost(nextIn(), nextOut(), sol);
+	}
+
+	@Benchmark
+	public boolean isFeasible() {
+		int elem = nextElem;
+		nextElem = (nextElem + 1 == qbfpt.getDomainSize()) ? 0 : nextElem + 1;
+		return qbfpt.is_feasible(elem);
+	}
+
+}
@@ -0,0 +1,150 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import metaheuristics.grasp.AbstractGRASP;
+import problems.qbfpt.solvers.GRASP_QBFPT;
+import solutions.Solution;
+
+/**
+ * Benchmarks of the GRASP for the QBFPT: the incremental maintenance of the
+ * CL, which prunes and restores candidates on each move, by an insertion
+ * followed by a removal and by an insertion, an exchange and a removal; the
+ * biased choice from the RCL of the empty solution, and one full iteration
+ * (construction and best-improving local search), for each shipped instance
+ * and RCL strategy.
+ * 
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GRASPBenchmark {
+
+	@Param({ "020", "040", "060", "080", "100", "200", "400" })
+	public String instance;
+
+	@Param({ "SCAN", "HEAP" })
+	public GRASP_QBFPT.RCLStrategy rcl;
+
+	/**
+	 * GRASP_QBFPT exposing the steps of an iteration to the benchmarks.
+	 */
+	static class Probe extends GRASP_QBFPT {
+
+		/**
+		 * the candidates moved by {@link GRASPBenchmark#insertRemoveCandidate()}
+		 * and {@link GRASPBenchmark#insertExchangeRemoveCandidate()}.
+		 */
+		int[] candidates;
+
+		private int next;
+
+		Probe(String filename, GRASP_QBFPT.RCLStrategy rcl) throws IOException {
+			super(0.25, 1, filename, GRASP_QBFPT.SearchStrategy.BI, GRASP_QBFPT.BiasFunction.LINEAR, rcl,
+					AbstractGRASP.Construction.DEF, 2);
+		}
+
+		/**
+		 * Restarts the construction from the empty solution and builds its
+		 * RCL. A whole construction is run first, so the construction state
+		 * is allocated.
+		 */
+		void prepareRCL() {
+			constructiveHeuristic();
+			CL = makeCL();
+			RCL.clear();
+			currentSol = createEmptySol();
+			session = ObjFunction.openSession(currentSol);
+			buildRCL();
+			candidates = CL.stream().mapToInt(Integer::intValue).toArray();
+		}
+
+		/**
+		 * Inserts a candidate and removes it back, so the solution and the CL
+		 * are left as they were.
+		 */
+		Double insertRemoveCandidate() {
+			int elem = candidates[next];
+			next = (next + 1 == candidates.length) ? 0 : next + 1;
+			insertCandidate(elem);
+			removeCandidate(elem);
+			return currentSol.cost;
+		}
+
+		/**
+		 * Inserts a candidate, exchanges it by the next one and removes the
+		 * latter, so the solution and the CL are left as they were.
+		 */
+		Double insertExchangeRemoveCandidate() {
+			int elem = candidates[next];
+			next = (next + 1 == candidates.length) ? 0 : next + 1;
+			int other = candidates[next];
+			insertCandidate(elem);
+			exchangeCandidates(other, elem);
+			removeCandidate(other);
+			return currentSol.cost;
+		}
+
+		/**
+		 * Runs one iteration of the GRASP with the random number generator of
+		 * the given iteration.
+		 */
+		Solution<Integer> iterate(int iteration) {
+			rng = iterationRandom(iteration);
+			constructiveHeuristic();
+			localSearch();
+			return currentSol;
+		}
+
+	}
+
+	private Probe grasp;
+
+	private int iteration;
+
+	@Setup
+	public void setup() throws IOException {
+		AbstractGRASP.verbose = false;
+		grasp = new Probe(Instances.path(instance), rcl);
+		grasp.prepareRCL();
+	}
+
+	@Benchmark
+	public Double insertRemoveCandidate() {
+		return grasp.insertRemoveCandidate();
+	}
+
+	@Benchmark
+	public Double insertExchangeRemoveCandidate() {
+		return grasp.insertExchangeRemoveCandidate();
+	}
+
+	@Benchmark
+	public Integer chooseRandom() {
+		return grasp.chooseRandom();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Solution<Integer> iteration() {
+		return grasp.iterate(iteration++);
+	}
+
+}
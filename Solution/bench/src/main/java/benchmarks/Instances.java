@@ -0,0 +1,92 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import problems.EvaluationSession;
+import problems.qbf.io.BinaryInstance;
+import problems.qbf.matrix.PackedMatrix;
+import problems.qbfpt.QBFPT;
+import solutions.BinarySolution;
+import solutions.Solution;
+
+/**
+ * Helpers shared by the benchmarks to locate the instances and build the
+ * solutions the benchmarks are run on.
+ * 
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+final class Instances {
+
+	/**
+	 * the seed of the random solutions, so every run measures the same ones.
+	 */
+	static final long SEED = 42;
+
+	private Instances() {
+	}
+
+	/**
+	 * Gives the path of a shipped instance. The instances are looked for in
+	 * the directory given by the system property instances.dir, by default
+	 * ../instances.
+	 * 
+	 * @param instance
+	 *            the instance size, e.g. "020".
+	 * @return the path of the instance file.
+	 */
+	static String path(String instance) {
+		String dir = System.getProperty("instances.dir", ".." + File.separator + "instances");
+		return dir + File.separator + "qbf" + instance;
+	}
+
+	/**
+	 * Writes a random instance to a temporary binary file, deleted on exit.
+	 * Each interaction is nonzero with the given probability, and every
+	 * coefficient is an integer in [-100, 100], like in the shipped instances.
+	 * 
+	 * @param size
+	 *            the number of variables.
+	 * @param density
+	 *            the probability of a nonzero interaction.
+	 * @return the path of the instance file.
+	 * @throws IOException
+	 *             if the file cannot be written.
+	 */
+	static String random(int size, double density) throws IOException {
+		SplittableRandom rng = new SplittableRandom(SEED);
+		double[] upper = new double[PackedMatrix.length(size)];
+		for (int i = 0, k = 0; i < size; i++) {
+			for (int j = i; j < size; j++, k++) {
+				if (j == i || rng.nextDouble() < density)
+					upper[k] = rng.nextInt(201) - 100;
+			}
+		}
+		File file = File.createTempFile("qbf", ".bin");
+		file.deleteOnExit();
+		BinaryInstance.write(file.getPath(), upper, size, BinaryInstance.Layout.UPPER);
+		return file.getPath();
+	}
+
+	/**
+	 * Builds a random feasible solution, in which each element is inserted
+	 * with probability 1/2 if it does not complete a forbidden triple.
+	 * 
+	 * @param qbfpt
+	 *            the objective function.
+	 * @return the solution, bound to the objective function.
+	 */
+	static Solution<Integer> randomSolution(QBFPT qbfpt) {
+		SplittableRandom rng = new SplittableRandom(SEED);
+		Solution<Integer> sol = new BinarySolution(qbfpt.getDomainSize());
+		sol.cost = 0.0;
+		EvaluationSession<Integer> session = qbfpt.openSession(sol);
+		for (int i = 0; i < qbfpt.getDomainSize(); i++) {
+			if (rng.nextBoolean() && qbfpt.is_feasible(i))
+				session.insert(i);
+		}
+		return sol;
+	}
+
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import problems.EvaluationSession;
+import problems.qbf.QBF;
+import problems.qbf.matrix.CoefficientMatrix;
+import problems.qbfpt.QBFPT;
+import problems.qbfpt.QBFPT_Inverse;
+import solutions.Solution;
+
+/**
+ * Benchmarks of the operations of the local search that depend on the
+ * storage layout, on random instances of growing density of nonzero
+ * interactions: a row of the exchange neighborhood, i.e., the exchange of
+ * every element of the solution by the same element, and an insertion
+ * followed by a removal, which update the contributions. Comparing the
+ * SYMMETRIC and SPARSE layouts gives the density up to which the AUTO layout
+ * picks SPARSE, see {@link CoefficientMatrix#SPARSE_DENSITY}.
+ * 
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutBenchmark {
+
+	@Param({ "1000", "2000" })
+	public int size;
+
+	@Param({ "0.01", "0.02", "0.05", "0.1", "0.2", "0.4" })
+	public double density;
+
+	@Param({ "SYMMETRIC", "SPARSE" })
+	public CoefficientMatrix.Layout layout;
+
+	private Solution<Integer> sol;
+
+	private EvaluationSession<Integer> session;
+
+	/**
+	 * the elements out of the solution.
+	 */
+	private int[] outside;
+
+	private double[] costs;
+
+	private int next;
+
+	@Setup
+	public void setup() throws IOException {
+		QBF.matrixLayout = layout;
+		QBFPT qbfpt = new QBFPT_Inverse(Instances.random(size, density));
+		sol = Instances.randomSolution(qbfpt);
+		session = qbfpt.openSession(sol);
+		costs = new double[size];
+
+		outside = new int[size - sol.size()];
+		for (int i = 0, out = 0; i < size; i++) {
+			if (!sol.contains(i))
+				outside[out++] = i;
+		}
+	}
+
+	private int nextIn() {
+		int elem = outside[next];
+		next = (next + 1 == outside.length) ? 0 : next + 1;
+		return elem;
+	}
+
+	@Benchmark
+	public double[] exchangeRow() {
+		session.evaluateExchangeCosts(nextIn(), sol, costs);
+		return costs;
+	}
+
+	@Benchmark
+	public Solution<Integer> insertRemove() {
+		int elem = nextIn();
+		session.insert(elem);
+		session.remove(elem);
+		return sol;
+	}
+
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks. It accepts the JMH command line options, but
+ * writes the results in JSON to jmh-result.json unless -rf or -rff are given,
+ * so runs can be compared to detect regressions.
+ * 
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public class Main {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+
+		CommandLineOptions cmd = new CommandLineOptions(args);
+		if (cmd.shouldHelp()) {
+			cmd.showHelp();
+			return;
+		}
+
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+		if (!cmd.getResultFormat().hasValue())
+			options.resultFormat(ResultFormatType.JSON);
+		if (!cmd.getResult().hasValue())
+			options.result("jmh-result.json");
+
+		Runner runner = new Runner(options.build());
+		if (cmd.shouldList())
+			runner.list();
+		else
+			runner.run();
+	}
+
+}
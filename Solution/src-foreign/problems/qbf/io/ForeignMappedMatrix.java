@@ -0,0 +1,73 @@
+package problems.qbf.io;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link MappedMatrix} reading the coefficients from a single mapping of the
+ * instance file through the Foreign Memory API, instead of the 1GB
+ * ByteBuffers of the instance. The whole coefficient section is one segment
+ * addressed by long offsets, so no access has to find its region first. The
+ * mapping is released when the matrix becomes unreachable.
+ *
+ * This class needs the java.lang.foreign API, final since JDK 22, so it
+ * lives apart from the other sources, is compiled by the foreign profile of
+ * pom.xml, and is only loaded, by reflection, from
+ * {@link BinaryInstance#offHeapMatrix()}.
+ *
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public class ForeignMappedMatrix extends MappedMatrix {
+
+	private static final ValueLayout.OfShort INT16 = ValueLayout.JAVA_SHORT_UNALIGNED
+			.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+	private static final ValueLayout.OfInt INT32 = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+	private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE_UNALIGNED
+			.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+	private final BinaryInstance.CoefficientType type;
+
+	/**
+	 * the coefficient section of the file.
+	 */
+	private final MemorySegment values;
+
+	/**
+	 * Maps the coefficients of an instance.
+	 *
+	 * @param instance
+	 *            the instance, of UPPER or FULL layout.
+	 * @throws IOException
+	 *             if the file cannot be mapped.
+	 */
+	public ForeignMappedMatrix(BinaryInstance instance) throws IOException {
+		super(instance);
+		this.type = instance.getCoefficientType();
+		try (FileChannel channel = FileChannel.open(instance.path, StandardOpenOption.READ)) {
+			this.values = channel.map(FileChannel.MapMode.READ_ONLY, instance.base,
+					instance.getCount() * type.bytes, Arena.ofAuto());
+		}
+	}
+
+	@Override
+	protected double coefficient(long k) {
+		switch (type) {
+		case INT8:
+			return values.get(ValueLayout.JAVA_BYTE, k);
+		case INT16:
+			return values.getAtIndex(INT16, k);
+		case INT32:
+			return values.getAtIndex(INT32, k);
+		default:
+			return values.getAtIndex(DOUBLE, k);
+		}
+	}
+
+}
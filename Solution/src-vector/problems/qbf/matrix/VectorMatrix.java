@@ -0,0 +1,128 @@
+package problems.qbf.matrix;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Coefficient matrix stored as the symmetrized matrix Q, like
+ * {@link SymmetricMatrix}, whose row scans run on the SIMD units through the
+ * incubating Vector API. The values of the variables are zero or one, so a
+ * contribution is a fused multiply-add of a row of Q with the selection
+ * vector x, lane by lane, and a row update is a fused multiply-add of the row
+ * into the delta array.
+ *
+ * This class needs the jdk.incubator.vector module, so it lives apart from
+ * the other sources and is only loaded, by reflection, from
+ * {@link CoefficientMatrix#of(double[], int, Layout)}, which falls back to
+ * {@link SymmetricMatrix}, with a warning, when the module is absent. The
+ * Maven build of the solver compiles it with the module, see pom.xml.
+ * 
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public class VectorMatrix implements CoefficientMatrix {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	private final int size;
+
+	private final double[] Q;
+
+	/**
+	 * Creates the matrix from the packed upper triangle.
+	 * 
+	 * @param upper
+	 *            the coefficients of the upper triangle, see
+	 *            {@link CoefficientMatrix#of(double[], int, Layout)}.
+	 * @param size
+	 *            the number of variables.
+	 * @throws IllegalArgumentException
+	 *             if size is greater than {@link SymmetricMatrix#MAX_SIZE}.
+	 */
+	public VectorMatrix(double[] upper, int size) {
+		this.size = size;
+		this.Q = new double[SymmetricMatrix.length(size, "VECTOR")];
+		for (int i = 0, k = 0; i < size; i++) {
+			for (int j = i; j < size; j++, k++) {
+				Q[i * size + j] = upper[k];
+				Q[j * size + i] = upper[k];
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public double diagonal(int i) {
+		return Q[i * size + i];
+	}
+
+	@Override
+	public double pair(int i, int j) {
+		return Q[i * size + j];
+	}
+
+	@Override
+	public void addRow(int i, double scale, double[] delta) {
+		// The whole row is added and the diagonal entry restored afterwards,
+		// so the loop needs no split around i.
+		int row = i * size;
+		double kept = delta[i];
+		DoubleVector factor = DoubleVector.broadcast(SPECIES, scale);
+		int j = 0;
+		for (int bound = SPECIES.loopBound(size); j < bound; j += SPECIES.length()) {
+			DoubleVector.fromArray(SPECIES, Q, row + j).fma(factor, DoubleVector.fromArray(SPECIES, delta, j))
+					.intoArray(delta, j);
+		}
+		for (; j < size; j++) {
+			delta[j] += scale * Q[row + j];
+		}
+		delta[i] = kept;
+	}
+
+	@Override
+	public double contribution(int i, double[] x) {
+		// The dot product covers x_i*a_{ii}, which is replaced by a_{ii}.
+		int row = i * size;
+		return dot(x, row, 0) + (1 - x[i]) * Q[row + i];
+	}
+
+	@Override
+	public double evaluate(double[] x) {
+		double sum = 0;
+		for (int i = 0; i < size; i++) {
+			if (x[i] == 0)
+				continue;
+			sum += dot(x, i * size, i);
+		}
+		return sum;
+	}
+
+	/**
+	 * Gives the dot product of x with a row of Q, from a given column on.
+	 * 
+	 * @param x
+	 *            the values of the variables.
+	 * @param row
+	 *            the offset of the row in Q.
+	 * @param from
+	 *            the first column.
+	 * @return \sum{j >= from}{x_j*q_{row,j}}.
+	 */
+	private double dot(double[] x, int row, int from) {
+		DoubleVector acc = DoubleVector.zero(SPECIES);
+		int j = from;
+		for (int bound = from + SPECIES.loopBound(size - from); j < bound; j += SPECIES.length()) {
+			acc = DoubleVector.fromArray(SPECIES, x, j).fma(DoubleVector.fromArray(SPECIES, Q, row + j), acc);
+		}
+		double sum = acc.reduceLanes(VectorOperators.ADD);
+		for (; j < size; j++) {
+			sum += x[j] * Q[row + j];
+		}
+		return sum;
+	}
+
+}
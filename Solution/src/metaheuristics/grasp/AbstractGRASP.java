@@ -3,9 +3,19 @@
  */
 package metaheuristics.grasp;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
-import java.util.Random;
-
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import problems.EvaluationSession;
 import problems.Evaluator;
 import solutions.Solution;
 
@@ -42,9 +52,22 @@ public abstract class AbstractGRASP<E> {
 	public static boolean verbose = true;
 
 	/**
-	 * a random number generator
+	 * the number of evaluated moves between two readings of the clock of the
+	 * {@link #deadline}, which bounds how far a run can overshoot it.
+	 */
+	public static int deadlinePollMoves = 1 << 14;
+
+	/**
+	 * the seed from which the random number generators of all iterations are
+	 * derived, see {@link #iterationRandom(int)}.
+	 */
+	private long seed;
+
+	/**
+	 * a random number generator, replaced at the beginning of each iteration
+	 * by the generator of that iteration.
 	 */
-	protected static Random rng = new Random(0);
+	protected SplittableRandom rng;
 
 	/**
 	 * the objective function being optimized
@@ -71,11 +94,23 @@ public abstract class AbstractGRASP<E> {
 	 */
 	protected Solution<E> incumbentSol;
 
+	/**
+	 * the iteration that obtained the best solution, or -1 for the initial
+	 * empty solution.
+	 */
+	private int incumbentIteration;
+
 	/**
 	 * the incumbent solution
 	 */
 	protected Solution<E> currentSol;
 
+	/**
+	 * the evaluation session bound to {@link #currentSol}, through which
+	 * moves are evaluated and applied.
+	 */
+	protected EvaluationSession<E> session;
+
 	/**
 	 * the number of iterations the GRASP main loop executes.
 	 */
@@ -84,7 +119,7 @@ public abstract class AbstractGRASP<E> {
 	/**
 	 * the Candidate List of elements to enter the solution.
 	 */
-	protected ArrayList<E> CL;
+	protected List<E> CL;
 
 	/**
 	 * the Restricted Candidate List of elements to enter the solution.
@@ -92,12 +127,62 @@ public abstract class AbstractGRASP<E> {
 	protected ArrayList<E> RCL;
 
 	/**
-	 * Creates the Candidate List, which is an ArrayList of candidate elements
+	 * the insertion costs of the RCL candidates, evaluated once at each step
+	 * of the constructive heuristic. The cost of RCL.get(k) is rclCosts[k].
+	 */
+	protected double[] rclCosts;
+
+	/**
+	 * the insertion costs of the CL candidates, evaluated in bulk at each step
+	 * of the constructive heuristic.
+	 */
+	private double[] clCosts;
+
+	/**
+	 * the deadline and cancellation token of the running
+	 * {@link #solve(double)}, shared by its workers.
+	 */
+	protected volatile Deadline deadline = Deadline.never();
+
+	/**
+	 * whether {@link #cancel()} was called since the last run ended. The
+	 * {@link #deadline} of a run is only created once it starts, so the flag
+	 * carries a cancellation received before or during its setup over to it.
+	 */
+	private volatile boolean cancelled;
+
+	/**
+	 * the moves left before the next reading of the {@link #deadline}, and
+	 * whether it was found expired by this solver.
+	 */
+	private long movesToPoll;
+	private boolean stopped;
+
+	/**
+	 * the stopping criterion checked at the end of each iteration, besides
+	 * {@link #iterations} and the time limit.
+	 */
+	protected StoppingCriterion stoppingCriterion = StoppingCriterion.never();
+
+	/**
+	 * the progress of the running {@link #solve(double)}.
+	 */
+	protected SearchProgress progress = new SearchProgress();
+
+	/**
+	 * the moves evaluated by this solver during the run, those already
+	 * recorded in the {@link #progress}, and the CPU time of its thread when
+	 * the last iteration was recorded.
+	 */
+	private long evaluatedMoves, recordedMoves, cpuMark;
+
+	/**
+	 * Creates the Candidate List, which is a List of candidate elements
 	 * that can enter a solution.
 	 * 
 	 * @return The Candidate List.
 	 */
-	public abstract ArrayList<E> makeCL();
+	public abstract List<E> makeCL();
 
 	/**
 	 * Creates the Restricted Candidate List, which is an ArrayList of the best
@@ -140,6 +225,148 @@ public abstract class AbstractGRASP<E> {
 	 */
 	public abstract E chooseRandom();
 
+	/**
+	 * Fills the RCL with the candidates whose insertion cost is within the
+	 * {@link #alpha} threshold, storing their costs in {@link #rclCosts}. It
+	 * explores all candidates of the CL, saving the highest and lowest cost
+	 * variation achieved by them, and then inserts into the RCL those with the
+	 * highest performance.
+	 */
+	protected void buildRCL() {
+
+		double maxCost = Double.NEGATIVE_INFINITY, minCost = Double.POSITIVE_INFINITY;
+
+		/*
+		 * Explore all candidate elements to enter the solution, saving the
+		 * highest and lowest cost variation achieved by the candidates.
+		 */
+		session.evaluateInsertionCosts(CL, clCosts);
+		for (int k = 0; k < CL.size(); k++) {
+			double deltaCost = clCosts[k];
+			if (deltaCost < minCost)
+				minCost = deltaCost;
+			if (deltaCost > maxCost)
+				maxCost = deltaCost;
+		}
+
+		/*
+		 * Among all candidates, insert into the RCL those with the highest
+		 * performance using parameter alpha as threshold.
+		 */
+		int k = 0;
+		for (E c : CL) {
+			double deltaCost = clCosts[k++];
+			if (deltaCost <= minCost + alpha * (maxCost - minCost)) {
+				rclCosts[RCL.size()] = deltaCost;
+				RCL.add(c);
+			}
+		}
+	}
+
+	/**
+	 * Creates a solver with the same parameters as this one, to be run by a
+	 * worker of {@link #solve(double, int)}. The copy must not share the
+	 * evaluator state, the CL, the RCL nor the solutions with this solver, see
+	 * {@link #AbstractGRASP(AbstractGRASP)}.
+	 * 
+	 * @return A copy of the solver.
+	 */
+	protected abstract AbstractGRASP<E> copy();
+
+	/**
+	 * Inserts a candidate into the current solution through the
+	 * {@link #session}, removing it from the Candidate List. Subclasses that
+	 * keep the Candidate List up to date incrementally should override this
+	 * method, as well as {@link #removeCandidate} and
+	 * {@link #exchangeCandidates}.
+	 * 
+	 * @param in
+	 *            The candidate entering the solution.
+	 */
+	protected void insertCandidate(E in) {
+		session.insert(in);
+		CL.remove(in);
+	}
+
+	/**
+	 * Removes an element from the current solution through the
+	 * {@link #session}, giving it back to the Candidate List.
+	 * 
+	 * @param out
+	 *            The element leaving the solution.
+	 */
+	protected void removeCandidate(E out) {
+		session.remove(out);
+		CL.add(out);
+	}
+
+	/**
+	 * Exchanges an element of the current solution by a candidate through the
+	 * {@link #session}, updating the Candidate List accordingly.
+	 * 
+	 * @param in
+	 *            The candidate entering the solution.
+	 * @param out
+	 *            The element leaving the solution.
+	 */
+	protected void exchangeCandidates(E in, E out) {
+		session.exchange(in, out);
+		CL.add(out);
+		CL.remove(in);
+	}
+
+	/**
+	 * Tells the constructive heuristic and the local search whether they must
+	 * stop because the {@link #deadline} was reached or the run was
+	 * cancelled. The clock is only read once every {@link #deadlinePollMoves}
+	 * evaluated moves, so the test is cheap enough to be done at each step.
+	 * Once the deadline is reached, every later test returns true.
+	 * 
+	 * @param moves
+	 *            The number of moves evaluated since the previous test.
+	 * @return true if the search must stop.
+	 */
+	protected boolean deadlineReached(long moves) {
+		evaluatedMoves += moves;
+		if (stopped)
+			return true;
+		movesToPoll -= moves;
+		if (movesToPoll > 0)
+			return false;
+		movesToPoll = deadlinePollMoves;
+		return stopped = deadline.isExpired();
+	}
+
+	/**
+	 * Sets the criterion deciding when the next runs stop, besides the number
+	 * of iterations and the time limit.
+	 * 
+	 * @param stoppingCriterion
+	 *            The stopping criterion, see {@link StoppingCriterion}.
+	 */
+	public void setStoppingCriterion(StoppingCriterion stoppingCriterion) {
+		this.stoppingCriterion = stoppingCriterion;
+	}
+
+	/**
+	 * Gives the progress of the running or last run.
+	 * 
+	 * @return The progress of the run.
+	 */
+	public SearchProgress getProgress() {
+		return progress;
+	}
+
+	/**
+	 * Cancels the running {@link #solve(double)}, from any thread, or the
+	 * next one if no run has started yet. The best solution found so far is
+	 * returned shortly afterwards.
+	 */
+	public void cancel() {
+		cancelled = true;
+		deadline.cancel();
+	}
+
 	/**
 	 * Constructor for the AbstractGRASP class.
 	 * 
@@ -157,6 +384,51 @@ public abstract class AbstractGRASP<E> {
 		this.iterations = iterations;
 		this.constructionType = constructionType;
 		this.rpgP = rpgP;
+		this.seed = 0;
+		this.rng = iterationRandom(0);
+	}
+
+	/**
+	 * Copy constructor for the AbstractGRASP class. The copy has the same
+	 * parameters as the given solver, but works on a fork of its objective
+	 * function (see {@link Evaluator#fork()}).
+	 * 
+	 * @param grasp
+	 *            The solver being copied.
+	 */
+	protected AbstractGRASP(AbstractGRASP<E> grasp) {
+		this(grasp.ObjFunction.fork(), grasp.alpha, grasp.iterations, grasp.constructionType, grasp.rpgP);
+		this.seed = grasp.seed;
+		this.rng = iterationRandom(0);
+	}
+
+	/**
+	 * Sets the seed of the solver. Solvers with the same parameters and seed
+	 * produce the same solution at each iteration.
+	 * 
+	 * @param seed
+	 *            The seed of the random number generators.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+		this.rng = iterationRandom(0);
+	}
+
+	/**
+	 * Creates the random number generator of an iteration. The generator only
+	 * depends on the seed of the solver and on the iteration index, so an
+	 * iteration produces the same solution whether the iterations run serially,
+	 * in parallel or starting from another iteration. Generators of different
+	 * iterations are split from distinct SplittableRandom instances, hence
+	 * their streams are independent.
+	 * 
+	 * @param iteration
+	 *            The iteration index.
+	 * @return The random number generator of the iteration.
+	 */
+	protected SplittableRandom iterationRandom(int iteration) {
+		long master = new SplittableRandom(seed).nextLong();
+		return new SplittableRandom(master + iteration).split();
 	}
 	
 	/**
@@ -172,7 +444,11 @@ public abstract class AbstractGRASP<E> {
 		CL = makeCL();
 		RCL = makeRCL();
 		currentSol = createEmptySol();
+		session = ObjFunction.openSession(currentSol);
 		currentCost = Double.POSITIVE_INFINITY;
+
+		clCosts = new double[CL.size()];
+		rclCosts = new double[CL.size()];
 		
 		// Initialize alpha with random.
 		if (constructionType == Construction.RPG){
@@ -182,22 +458,12 @@ public abstract class AbstractGRASP<E> {
 		/* Main loop, which repeats until the stopping criteria is reached. */
 		while (!constructiveStopCriteria()) {
 
-			double maxCost = Double.NEGATIVE_INFINITY, minCost = Double.POSITIVE_INFINITY;
-			currentCost = ObjFunction.evaluate(currentSol);
+			currentCost = currentSol.cost;
 			updateCL();
 			if(this.CL.size() == 0) break;
 
-			/*
-			 * Explore all candidate elements to enter the solution, saving the
-			 * highest and lowest cost variation achieved by the candidates.
-			 */
-			for (E c : CL) {
-				Double deltaCost = ObjFunction.evaluateInsertionCost(c, currentSol);
-				if (deltaCost < minCost)
-					minCost = deltaCost;
-				if (deltaCost > maxCost)
-					maxCost = deltaCost;
-			}
+			/* Stop with the partial solution if the deadline was reached. */
+			if (deadlineReached(CL.size())) break;
             
             /* Random plus greedy.
              *  Iterations [0,p) - Random: alpha=1
@@ -207,22 +473,12 @@ public abstract class AbstractGRASP<E> {
                 this.alpha = 0.0;
 			}
 
-			/*
-			 * Among all candidates, insert into the RCL those with the highest
-			 * performance using parameter alpha as threshold.
-			 */
-			for (E c : CL) {
-				Double deltaCost = ObjFunction.evaluateInsertionCost(c, currentSol);
-				if (deltaCost <= minCost + alpha * (maxCost - minCost)) {
-					RCL.add(c);
-				}
-			}
+			/* Build the RCL from the candidates within the alpha threshold */
+			buildRCL();
 
 			/* Choose a candidate randomly from the RCL */
 			E inCand = chooseRandom();
-			CL.remove(inCand);
-			currentSol.add(inCand);
-			ObjFunction.evaluate(currentSol);
+			insertCandidate(inCand);
 			RCL.clear();
             
             // Increase iteration count.
@@ -235,39 +491,193 @@ public abstract class AbstractGRASP<E> {
 	/**
 	 * The GRASP mainframe. It consists of a loop, in which each iteration goes
 	 * through the constructive heuristic and local search. The best solution is
-	 * returned as result.
+	 * returned as result. The time limit is also enforced within the
+	 * iterations (see {@link #deadlineReached(long)}), so the run returns
+	 * shortly after it, the interrupted iteration contributing the solution
+	 * it reached. The {@link #stoppingCriterion} is checked after each
+	 * iteration.
 	 * 
+	 * @param maxTime
+	 *            The time limit, in seconds.
 	 * @return The best feasible solution obtained throughout all iterations.
 	 */
 	public Solution<E> solve(double maxTime) {
 		int i;
-		long startTime = System.currentTimeMillis();
-		long endTime;
-		double totalTime;
+		startDeadline(maxTime);
+		progress = new SearchProgress();
+		startRun();
 		incumbentSol = createEmptySol();
+		incumbentIteration = -1;
 		
 		for (i = 0; i < iterations; i++) {
+			rng = iterationRandom(i);
 			constructiveHeuristic();
 			localSearch();
-			if (incumbentSol.cost > currentSol.cost) {
-				incumbentSol = new Solution<E>(currentSol);
-				if (verbose)
-					System.out.println("(Iter. " + i + ") BestSol = " + incumbentSol);
-			}
-			
-			endTime   = System.currentTimeMillis();
-			totalTime = (endTime - startTime)/(double)1000;
+			updateIncumbent(currentSol, i);
 
-			//if it exceeded the time limit of 1800s (30 min), then break the loop
-			if(totalTime > maxTime) break;
+			//if it exceeded the time limit of 1800s (30 min) or met the
+			//stopping criterion, then break the loop
+			if (endIteration(progress, stoppingCriterion)) break;
 		}
 		
 		if(verbose)
-			System.out.println("Total iterations: " + i);
+			System.out.println("Total iterations: " + progress.getIterations());
 
+		cancelled = false;
 		return incumbentSol;
 	}
 
+	/**
+	 * Parallel version of the GRASP mainframe. The iterations are shared by a
+	 * pool of workers, each one running on its own copy of this solver (see
+	 * {@link #copy()}), hence with its own evaluator state, CL, RCL and random
+	 * number generator. The workers share the incumbent solution, and the
+	 * number of iterations, the time limit and the stopping criterion hold
+	 * across all of them.
+	 * 
+	 * @param maxTime
+	 *            The time limit, in seconds.
+	 * @param workers
+	 *            The number of worker threads.
+	 * @return The best feasible solution obtained throughout all iterations.
+	 */
+	public Solution<E> solve(double maxTime, int workers) {
+
+		if (workers <= 1)
+			return solve(maxTime);
+
+		startDeadline(maxTime);
+		progress = new SearchProgress();
+		AtomicInteger nextIteration = new AtomicInteger();
+		incumbentSol = createEmptySol();
+		incumbentIteration = -1;
+
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (int w = 0; w < workers; w++) {
+			AbstractGRASP<E> worker = copy();
+			worker.deadline = deadline;
+			tasks.add(() -> {
+				int i;
+				worker.startRun();
+				while ((i = nextIteration.getAndIncrement()) < iterations) {
+					worker.rng = worker.iterationRandom(i);
+					worker.constructiveHeuristic();
+					worker.localSearch();
+					updateIncumbent(worker.currentSol, i);
+
+					//if it exceeded the time limit or met the stopping
+					//criterion, then stop this worker
+					if (worker.endIteration(progress, stoppingCriterion))
+						break;
+				}
+				return null;
+			});
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		try {
+			for (Future<Void> future : pool.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		if(verbose)
+			System.out.println("Total iterations: " + progress.getIterations());
+
+		cancelled = false;
+		return incumbentSol;
+	}
+
+	/**
+	 * Creates the {@link #deadline} of a run, already cancelled if
+	 * {@link #cancel()} was called before. Setting the flag before reading
+	 * the deadline in cancel(), and the deadline before reading the flag
+	 * here, ensures that a concurrent cancellation reaches the new deadline.
+	 * 
+	 * @param maxTime
+	 *            The time limit, in seconds.
+	 */
+	private void startDeadline(double maxTime) {
+		deadline = new Deadline(maxTime);
+		if (cancelled)
+			deadline.cancel();
+	}
+
+	/**
+	 * Resets the polling of the {@link #deadline} and the counters of this
+	 * solver before a run, on the thread that runs it. The deadline is read
+	 * at the first test, so a run cancelled before it started stops at once.
+	 */
+	private void startRun() {
+		movesToPoll = 0;
+		stopped = false;
+		evaluatedMoves = recordedMoves = 0;
+		cpuMark = threadCpuTime();
+	}
+
+	/**
+	 * Records the iteration just completed by this solver and tells whether
+	 * the run must stop. A met criterion cancels the {@link #deadline}, so the
+	 * other workers of the run stop within their current iteration.
+	 * 
+	 * @param progress
+	 *            The progress of the run.
+	 * @param criterion
+	 *            The stopping criterion of the run.
+	 * @return true if the time limit was reached or the criterion is met.
+	 */
+	private boolean endIteration(SearchProgress progress, StoppingCriterion criterion) {
+		long cpu = threadCpuTime();
+		progress.record(currentSol.cost, evaluatedMoves - recordedMoves, cpu - cpuMark);
+		recordedMoves = evaluatedMoves;
+		cpuMark = cpu;
+
+		if (criterion.isMet(progress)) {
+			deadline.cancel();
+			return true;
+		}
+		movesToPoll = 0;
+		return deadlineReached(0);
+	}
+
+	/**
+	 * Gives the CPU time of the current thread, or 0 if the JVM does not
+	 * measure it.
+	 */
+	private static long threadCpuTime() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!threads.isCurrentThreadCpuTimeSupported())
+			return 0;
+		return Math.max(0, threads.getCurrentThreadCpuTime());
+	}
+
+	/**
+	 * Replaces the incumbent solution by a copy of the given solution if the
+	 * latter is better. Ties are broken in favor of the earliest iteration, so
+	 * the result does not depend on the order in which concurrent workers
+	 * finish their iterations. It is safe to be called by concurrent workers.
+	 * 
+	 * @param sol
+	 *            The solution obtained by an iteration.
+	 * @param iteration
+	 *            The iteration that obtained the solution.
+	 */
+	protected synchronized void updateIncumbent(Solution<E> sol, int iteration) {
+		if (incumbentSol.cost > sol.cost
+				|| (incumbentSol.cost.equals(sol.cost) && iteration < incumbentIteration)) {
+			incumbentSol = sol.copy();
+			incumbentIteration = iteration;
+			if (verbose)
+				System.out.println("(Iter. " + iteration + ") BestSol = " + incumbentSol);
+		}
+	}
+
 	/**
 	 * A standard stopping criteria for the constructive heuristic is to repeat
 	 * until the incumbent solution improves by inserting a new candidate
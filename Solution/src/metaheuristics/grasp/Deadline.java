@@ -0,0 +1,80 @@
+package metaheuristics.grasp;
+
+/**
+ * Deadline and cancellation token of a run. The deadline is measured with
+ * {@link System#nanoTime()} from the creation of the token, and the token can
+ * also be cancelled from any thread. Reading the clock is cheap but not free,
+ * so the solvers only check the token every few evaluated moves, see
+ * {@link AbstractGRASP#deadlineReached(long)}.
+ *
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public class Deadline {
+
+	/**
+	 * the value of {@link System#nanoTime()} when the token was created.
+	 */
+	private final long start;
+
+	/**
+	 * the time budget, in nanoseconds.
+	 */
+	private final long budget;
+
+	private volatile boolean cancelled;
+
+	/**
+	 * Creates a token expiring after the given time from now.
+	 *
+	 * @param seconds
+	 *            the time budget, in seconds; infinite for no deadline.
+	 */
+	public Deadline(double seconds) {
+		this.start = System.nanoTime();
+		this.budget = (seconds * 1e9 >= Long.MAX_VALUE) ? Long.MAX_VALUE : Math.max(0, (long) (seconds * 1e9));
+	}
+
+	/**
+	 * Creates a token that only expires when it is cancelled.
+	 *
+	 * @return a token without deadline.
+	 */
+	public static Deadline never() {
+		return new Deadline(Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Cancels the run, which then stops as if its deadline was reached.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Tests whether the token was cancelled.
+	 *
+	 * @return true if {@link #cancel()} was called.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Tests whether the run must stop, reading the clock.
+	 *
+	 * @return true if the deadline was reached or the token was cancelled.
+	 */
+	public boolean isExpired() {
+		return cancelled || System.nanoTime() - start >= budget;
+	}
+
+	/**
+	 * Gives the time elapsed since the token was created.
+	 *
+	 * @return the elapsed time, in seconds.
+	 */
+	public double elapsed() {
+		return (System.nanoTime() - start) / 1e9;
+	}
+
+}
@@ -0,0 +1,287 @@
+package metaheuristics.grasp;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Indexed min/max heap over the candidates of a problem whose elements are the
+ * integers of a domain [0, n), keyed by their insertion cost. The candidates
+ * are kept both in a min-heap and in a max-heap, together with the position of
+ * each candidate in them, so the lowest and highest costs are read in O(1),
+ * and inserting, removing or changing the cost of a candidate takes
+ * O(log n). The candidates within a cost threshold are collected in O(k) by
+ * walking the min-heap, where k is the number of collected candidates.
+ *
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public class IndexedCandidateHeap {
+
+	/**
+	 * the insertion cost of each domain element, only valid for elements in
+	 * the heap.
+	 */
+	private final double[] key;
+
+	/**
+	 * the min-heap and the max-heap, only the first {@link #size} are valid.
+	 */
+	private final int[] minHeap, maxHeap;
+
+	/**
+	 * the position of each domain element in {@link #minHeap} and
+	 * {@link #maxHeap}, or -1 if the element is not in the heap.
+	 */
+	private final int[] minPos, maxPos;
+
+	/**
+	 * the number of candidates in the heap.
+	 */
+	private int size;
+
+	/**
+	 * scratch stack used to walk the min-heap.
+	 */
+	private final int[] stack;
+
+	/**
+	 * Creates an empty heap.
+	 *
+	 * @param domainSize
+	 *            the number of elements of the domain.
+	 */
+	public IndexedCandidateHeap(int domainSize) {
+		key = new double[domainSize];
+		minHeap = new int[domainSize];
+		maxHeap = new int[domainSize];
+		minPos = new int[domainSize];
+		maxPos = new int[domainSize];
+		stack = new int[domainSize];
+		Arrays.fill(minPos, -1);
+		Arrays.fill(maxPos, -1);
+	}
+
+	/**
+	 * Replaces the contents of the heap by the given candidates, in O(n).
+	 *
+	 * @param elems
+	 *            the candidates, only the first count are used.
+	 * @param costs
+	 *            the insertion cost of each candidate, aligned with elems.
+	 * @param count
+	 *            the number of candidates.
+	 */
+	public void build(int[] elems, double[] costs, int count) {
+		clear();
+		for (int k = 0; k < count; k++) {
+			int elem = elems[k];
+			key[elem] = costs[k];
+			minHeap[k] = maxHeap[k] = elem;
+			minPos[elem] = maxPos[elem] = k;
+		}
+		size = count;
+		for (int k = (size >>> 1) - 1; k >= 0; k--) {
+			siftDown(minHeap, minPos, k, 1);
+			siftDown(maxHeap, maxPos, k, -1);
+		}
+	}
+
+	/**
+	 * Removes every candidate from the heap.
+	 */
+	public void clear() {
+		for (int k = 0; k < size; k++) {
+			minPos[minHeap[k]] = -1;
+			maxPos[maxHeap[k]] = -1;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Gives the number of candidates in the heap.
+	 *
+	 * @return the size of the heap.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Tests whether a candidate is in the heap.
+	 *
+	 * @param elem
+	 *            the candidate being tested.
+	 * @return true if the candidate is in the heap.
+	 */
+	public boolean contains(int elem) {
+		return minPos[elem] >= 0;
+	}
+
+	/**
+	 * Gives the lowest insertion cost in the heap, which must not be empty.
+	 *
+	 * @return the lowest cost.
+	 */
+	public double minCost() {
+		return key[minHeap[0]];
+	}
+
+	/**
+	 * Gives the highest insertion cost in the heap, which must not be empty.
+	 *
+	 * @return the highest cost.
+	 */
+	public double maxCost() {
+		return key[maxHeap[0]];
+	}
+
+	/**
+	 * Inserts a candidate into the heap, or changes its cost if it is already
+	 * there.
+	 *
+	 * @param elem
+	 *            the candidate.
+	 * @param cost
+	 *            the insertion cost of the candidate.
+	 */
+	public void insert(int elem, double cost) {
+		if (contains(elem)) {
+			update(elem, cost);
+			return;
+		}
+		key[elem] = cost;
+		minHeap[size] = maxHeap[size] = elem;
+		minPos[elem] = maxPos[elem] = size;
+		size++;
+		siftUp(minHeap, minPos, size - 1, 1);
+		siftUp(maxHeap, maxPos, size - 1, -1);
+	}
+
+	/**
+	 * Changes the insertion cost of a candidate in the heap.
+	 *
+	 * @param elem
+	 *            the candidate.
+	 * @param cost
+	 *            the new insertion cost of the candidate.
+	 */
+	public void update(int elem, double cost) {
+		double old = key[elem];
+		if (cost == old)
+			return;
+		key[elem] = cost;
+		if (cost < old) {
+			siftUp(minHeap, minPos, minPos[elem], 1);
+			siftDown(maxHeap, maxPos, maxPos[elem], -1);
+		} else {
+			siftDown(minHeap, minPos, minPos[elem], 1);
+			siftUp(maxHeap, maxPos, maxPos[elem], -1);
+		}
+	}
+
+	/**
+	 * Removes a candidate from the heap, if it is there.
+	 *
+	 * @param elem
+	 *            the candidate being removed.
+	 * @return true if the heap changed.
+	 */
+	public boolean remove(int elem) {
+		if (!contains(elem))
+			return false;
+		size--;
+		removeAt(minHeap, minPos, minPos[elem], 1);
+		removeAt(maxHeap, maxPos, maxPos[elem], -1);
+		return true;
+	}
+
+	/**
+	 * Appends to a list the candidates whose insertion cost is at most the
+	 * given threshold, storing their costs in the same positions of an array.
+	 * Only the subtrees of the min-heap whose root is within the threshold are
+	 * visited.
+	 *
+	 * @param threshold
+	 *            the highest insertion cost collected.
+	 * @param rcl
+	 *            the list receiving the candidates.
+	 * @param rclCosts
+	 *            the array receiving the costs, aligned with rcl.
+	 */
+	public void collect(double threshold, List<Integer> rcl, double[] rclCosts) {
+		if (size == 0)
+			return;
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int k = stack[--top];
+			int elem = minHeap[k];
+			if (key[elem] > threshold)
+				continue;
+			rclCosts[rcl.size()] = key[elem];
+			rcl.add(elem);
+			int child = 2 * k + 1;
+			if (child + 1 < size)
+				stack[top++] = child + 1;
+			if (child < size)
+				stack[top++] = child;
+		}
+	}
+
+	/**
+	 * Tests whether the element at position a must be above the element at
+	 * position b, that is, a has a lower cost in the min-heap (sign 1) or a
+	 * higher cost in the max-heap (sign -1).
+	 */
+	private boolean above(int[] heap, int a, int b, int sign) {
+		return sign * key[heap[a]] < sign * key[heap[b]];
+	}
+
+	private void swap(int[] heap, int[] pos, int a, int b) {
+		int elemA = heap[a], elemB = heap[b];
+		heap[a] = elemB;
+		heap[b] = elemA;
+		pos[elemB] = a;
+		pos[elemA] = b;
+	}
+
+	private void siftUp(int[] heap, int[] pos, int k, int sign) {
+		while (k > 0) {
+			int parent = (k - 1) >>> 1;
+			if (!above(heap, k, parent, sign))
+				break;
+			swap(heap, pos, k, parent);
+			k = parent;
+		}
+	}
+
+	private void siftDown(int[] heap, int[] pos, int k, int sign) {
+		while (true) {
+			int child = 2 * k + 1;
+			if (child >= size)
+				break;
+			if (child + 1 < size && above(heap, child + 1, child, sign))
+				child++;
+			if (!above(heap, child, k, sign))
+				break;
+			swap(heap, pos, k, child);
+			k = child;
+		}
+	}
+
+	/**
+	 * Removes the element at position k of a heap whose size was already
+	 * decremented, moving the last element into the freed position.
+	 */
+	private void removeAt(int[] heap, int[] pos, int k, int sign) {
+		pos[heap[k]] = -1;
+		if (k == size)
+			return;
+		int last = heap[size];
+		heap[k] = last;
+		pos[last] = k;
+		siftDown(heap, pos, k, sign);
+		if (heap[k] == last)
+			siftUp(heap, pos, k, sign);
+	}
+
+}
@@ -0,0 +1,176 @@
+package metaheuristics.grasp;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+import solutions.IntElements;
+
+/**
+ * Candidate List for problems whose elements are the integers of a domain
+ * [0, n). Elements are kept in a dense int array together with the position of
+ * each element in it, so insertion, removal and membership tests are O(1).
+ * Removal moves the last element into the freed position, hence the iteration
+ * order is not the insertion order.
+ *
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public class IntCandidateList extends AbstractList<Integer> implements IntElements {
+
+	/**
+	 * the elements of the list, only the first {@link #size} are valid.
+	 */
+	private final int[] elements;
+
+	/**
+	 * the position of each domain element in {@link #elements}, or -1 if the
+	 * element is not in the list.
+	 */
+	private final int[] position;
+
+	/**
+	 * the number of elements in the list.
+	 */
+	private int size;
+
+	/**
+	 * Creates an empty Candidate List.
+	 *
+	 * @param domainSize
+	 *            the number of elements of the domain.
+	 */
+	public IntCandidateList(int domainSize) {
+		elements = new int[domainSize];
+		position = new int[domainSize];
+		Arrays.fill(position, -1);
+	}
+
+	/**
+	 * Creates a Candidate List with every element of the domain.
+	 *
+	 * @param domainSize
+	 *            the number of elements of the domain.
+	 * @return the full Candidate List.
+	 */
+	public static IntCandidateList full(int domainSize) {
+		IntCandidateList _CL = new IntCandidateList(domainSize);
+		for (int i = 0; i < domainSize; i++) {
+			_CL.addElement(i);
+		}
+		return _CL;
+	}
+
+	/**
+	 * Inserts an element at the end of the list, unless it is already there.
+	 *
+	 * @param elem
+	 *            the element being inserted.
+	 * @return true if the list changed.
+	 */
+	public boolean addElement(int elem) {
+		if (position[elem] >= 0)
+			return false;
+		position[elem] = size;
+		elements[size++] = elem;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Removes an element from the list, if it is there.
+	 *
+	 * @param elem
+	 *            the element being removed.
+	 * @return true if the list changed.
+	 */
+	public boolean removeElement(int elem) {
+		int pos = position[elem];
+		if (pos < 0)
+			return false;
+		removeAt(pos);
+		return true;
+	}
+
+	/**
+	 * Tests whether an element is in the list.
+	 *
+	 * @param elem
+	 *            the element being tested.
+	 * @return true if the element is in the list.
+	 */
+	public boolean containsElement(int elem) {
+		return position[elem] >= 0;
+	}
+
+	@Override
+	public int[] elements() {
+		return elements;
+	}
+
+	private boolean inDomain(Object o) {
+		return (o instanceof Integer) && (Integer) o >= 0 && (Integer) o < position.length;
+	}
+
+	private int removeAt(int pos) {
+		int elem = elements[pos];
+		int last = elements[--size];
+		elements[pos] = last;
+		position[last] = pos;
+		position[elem] = -1;
+		modCount++;
+		return elem;
+	}
+
+	@Override
+	public Integer get(int index) {
+		if (index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		return elements[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean add(Integer elem) {
+		return addElement(elem);
+	}
+
+	@Override
+	public Integer remove(int index) {
+		if (index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		return removeAt(index);
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		return inDomain(o) && removeElement((Integer) o);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return inDomain(o) && containsElement((Integer) o);
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		return inDomain(o) ? position[(Integer) o] : -1;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			position[elements[i]] = -1;
+		}
+		size = 0;
+		modCount++;
+	}
+
+}
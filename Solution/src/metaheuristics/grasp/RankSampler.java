@@ -0,0 +1,149 @@
+package metaheuristics.grasp;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Sampler of RCL candidates biased by their rank, the candidate of rank r
+ * (starting from 1, the best candidate) being chosen with probability
+ * proportional to bias(r). The prefix sums of the bias are computed once, so
+ * they serve RCLs of any size: a rank is drawn by a binary search over them,
+ * and the candidate holding it is found by a partial selection (quickselect)
+ * over the candidate costs instead of sorting the whole RCL. Neither step
+ * allocates memory.
+ *
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public class RankSampler {
+
+	/**
+	 * prefix[k] is the sum of the bias of ranks 1 to k.
+	 */
+	private final double[] prefix;
+
+	/**
+	 * scratch array with the positions being partitioned by
+	 * {@link #select(double[], int, int)}.
+	 */
+	private final int[] order;
+
+	/**
+	 * Creates a sampler for RCLs of up to maxSize candidates.
+	 *
+	 * @param bias
+	 *            the bias of each rank, starting from 1.
+	 * @param maxSize
+	 *            the highest RCL size.
+	 */
+	public RankSampler(IntToDoubleFunction bias, int maxSize) {
+		prefix = new double[maxSize + 1];
+		for (int r = 1; r <= maxSize; r++) {
+			prefix[r] = prefix[r - 1] + bias.applyAsDouble(r);
+		}
+		order = new int[maxSize];
+	}
+
+	/**
+	 * Creates a sampler sharing the prefix sums of another one, but with its
+	 * own scratch array, so both can be used concurrently.
+	 *
+	 * @param sampler
+	 *            the sampler being copied.
+	 */
+	public RankSampler(RankSampler sampler) {
+		prefix = sampler.prefix;
+		order = new int[sampler.order.length];
+	}
+
+	/**
+	 * Draws the rank of the chosen candidate.
+	 *
+	 * @param size
+	 *            the RCL size.
+	 * @param u
+	 *            a random value in [0,1).
+	 * @return the chosen rank, starting from 0.
+	 */
+	public int sampleRank(int size, double u) {
+		double target = u * prefix[size];
+		int lo = 0, hi = size - 1;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (prefix[mid + 1] > target)
+				hi = mid;
+			else
+				lo = mid + 1;
+		}
+		return lo;
+	}
+
+	/**
+	 * Draws a candidate of the RCL according to the bias of its rank, the
+	 * candidates being ranked by increasing cost.
+	 *
+	 * @param costs
+	 *            the cost of each RCL candidate.
+	 * @param size
+	 *            the RCL size.
+	 * @param u
+	 *            a random value in [0,1).
+	 * @return the position of the chosen candidate in the RCL.
+	 */
+	public int sample(double[] costs, int size, double u) {
+		return select(costs, size, sampleRank(size, u));
+	}
+
+	/**
+	 * Finds the candidate of a given rank, the candidates being ordered by
+	 * increasing cost and ties being broken by their position, in expected
+	 * O(size) time.
+	 *
+	 * @param costs
+	 *            the cost of each candidate.
+	 * @param size
+	 *            the number of candidates.
+	 * @param rank
+	 *            the rank being looked for, starting from 0.
+	 * @return the position of the candidate of the given rank.
+	 */
+	public int select(double[] costs, int size, int rank) {
+		for (int k = 0; k < size; k++) {
+			order[k] = k;
+		}
+		int lo = 0, hi = size - 1;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			// median of three as pivot, placed at hi.
+			if (less(costs, order[mid], order[lo]))
+				swap(mid, lo);
+			if (less(costs, order[hi], order[lo]))
+				swap(hi, lo);
+			if (less(costs, order[mid], order[hi]))
+				swap(mid, hi);
+			int pivot = order[hi];
+			int store = lo;
+			for (int k = lo; k < hi; k++) {
+				if (less(costs, order[k], pivot))
+					swap(k, store++);
+			}
+			swap(store, hi);
+			if (store == rank)
+				return order[store];
+			else if (store < rank)
+				lo = store + 1;
+			else
+				hi = store - 1;
+		}
+		return order[lo];
+	}
+
+	private static boolean less(double[] costs, int a, int b) {
+		return costs[a] < costs[b] || (costs[a] == costs[b] && a < b);
+	}
+
+	private void swap(int a, int b) {
+		int tmp = order[a];
+		order[a] = order[b];
+		order[b] = tmp;
+	}
+
+}
@@ -0,0 +1,114 @@
+package metaheuristics.grasp;
+
+/**
+ * Progress of a GRASP run, updated at the end of each iteration and read by
+ * the {@link StoppingCriterion} of the run. It is shared by the workers of a
+ * parallel run, so all of its methods are thread-safe.
+ *
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public class SearchProgress {
+
+	/**
+	 * the value of {@link System#nanoTime()} when the run started.
+	 */
+	private final long start;
+
+	private int iterations;
+
+	/**
+	 * the number of iterations completed when the incumbent last improved.
+	 */
+	private int improvedAt;
+
+	private double incumbentCost = Double.POSITIVE_INFINITY;
+
+	private long evaluations;
+
+	private long cpuNanos;
+
+	/**
+	 * Creates the progress of a run starting now.
+	 */
+	public SearchProgress() {
+		start = System.nanoTime();
+	}
+
+	/**
+	 * Records the end of an iteration.
+	 *
+	 * @param cost
+	 *            the cost of the solution of the iteration.
+	 * @param moves
+	 *            the number of moves evaluated by the iteration.
+	 * @param cpu
+	 *            the CPU time taken by the iteration, in nanoseconds.
+	 */
+	synchronized void record(double cost, long moves, long cpu) {
+		iterations++;
+		if (cost < incumbentCost) {
+			incumbentCost = cost;
+			improvedAt = iterations;
+		}
+		evaluations += moves;
+		cpuNanos += cpu;
+	}
+
+	/**
+	 * Gives the number of completed iterations.
+	 *
+	 * @return the number of iterations.
+	 */
+	public synchronized int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Gives the number of iterations completed since the incumbent last
+	 * improved, or since the run started if it never did.
+	 *
+	 * @return the number of non-improving iterations.
+	 */
+	public synchronized int getIterationsWithoutImprovement() {
+		return iterations - improvedAt;
+	}
+
+	/**
+	 * Gives the cost of the incumbent solution.
+	 *
+	 * @return the incumbent cost, infinite before the first iteration.
+	 */
+	public synchronized double getIncumbentCost() {
+		return incumbentCost;
+	}
+
+	/**
+	 * Gives the number of moves (insertions, removals and exchanges)
+	 * evaluated by the constructive heuristic and the local search.
+	 *
+	 * @return the number of evaluated moves.
+	 */
+	public synchronized long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Gives the wall-clock time elapsed since the run started.
+	 *
+	 * @return the elapsed time, in seconds.
+	 */
+	public double getElapsedSeconds() {
+		return (System.nanoTime() - start) / 1e9;
+	}
+
+	/**
+	 * Gives the CPU time taken by the completed iterations, summed over the
+	 * workers. It is zero if the JVM does not measure the CPU time of threads.
+	 *
+	 * @return the CPU time, in seconds.
+	 */
+	public synchronized double getCpuSeconds() {
+		return cpuNanos / 1e9;
+	}
+
+}
@@ -0,0 +1,129 @@
+package metaheuristics.grasp;
+
+/**
+ * Criterion deciding when a GRASP run stops, checked by
+ * {@link AbstractGRASP#solve(double, int)} at the end of each iteration,
+ * besides the iteration and time limits of the solver. Criteria are combined
+ * with {@link #or(StoppingCriterion)} and {@link #anyOf(StoppingCriterion...)}.
+ *
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+@FunctionalInterface
+public interface StoppingCriterion {
+
+	/**
+	 * Tests whether the run must stop.
+	 *
+	 * @param progress
+	 *            the progress of the run.
+	 * @return true if the run must stop.
+	 */
+	public abstract boolean isMet(SearchProgress progress);
+
+	/**
+	 * Combines this criterion with another one, stopping when either is met.
+	 *
+	 * @param other
+	 *            the other criterion.
+	 * @return the combined criterion.
+	 */
+	public default StoppingCriterion or(StoppingCriterion other) {
+		return progress -> isMet(progress) || other.isMet(progress);
+	}
+
+	/**
+	 * Criterion stopping when any of the given ones is met.
+	 *
+	 * @param criteria
+	 *            the criteria.
+	 * @return the combined criterion, never met if none is given.
+	 */
+	public static StoppingCriterion anyOf(StoppingCriterion... criteria) {
+		StoppingCriterion any = never();
+		for (StoppingCriterion criterion : criteria) {
+			any = any.or(criterion);
+		}
+		return any;
+	}
+
+	/**
+	 * Criterion that is never met, so the run only stops at the limits of the
+	 * solver.
+	 *
+	 * @return the criterion.
+	 */
+	public static StoppingCriterion never() {
+		return progress -> false;
+	}
+
+	/**
+	 * Criterion met once the incumbent cost is at most a target, e.g. a known
+	 * optimum. The GRASP minimizes, so the target of a maximization problem
+	 * solved through its inverse is the negated value.
+	 *
+	 * @param cost
+	 *            the target cost.
+	 * @return the criterion.
+	 */
+	public static StoppingCriterion target(double cost) {
+		return progress -> progress.getIncumbentCost() <= cost;
+	}
+
+	/**
+	 * Criterion met after a number of iterations.
+	 *
+	 * @param count
+	 *            the number of iterations.
+	 * @return the criterion.
+	 */
+	public static StoppingCriterion iterations(int count) {
+		return progress -> progress.getIterations() >= count;
+	}
+
+	/**
+	 * Criterion met after a number of consecutive iterations without
+	 * improving the incumbent.
+	 *
+	 * @param count
+	 *            the number of non-improving iterations.
+	 * @return the criterion.
+	 */
+	public static StoppingCriterion stagnation(int count) {
+		return progress -> progress.getIterationsWithoutImprovement() >= count;
+	}
+
+	/**
+	 * Criterion met after some wall-clock time.
+	 *
+	 * @param seconds
+	 *            the time limit, in seconds.
+	 * @return the criterion.
+	 */
+	public static StoppingCriterion wallTime(double seconds) {
+		return progress -> progress.getElapsedSeconds() >= seconds;
+	}
+
+	/**
+	 * Criterion met after some CPU time, summed over the workers.
+	 *
+	 * @param seconds
+	 *            the time limit, in seconds.
+	 * @return the criterion.
+	 */
+	public static StoppingCriterion cpuTime(double seconds) {
+		return progress -> progress.getCpuSeconds() >= seconds;
+	}
+
+	/**
+	 * Criterion met after a number of evaluated moves, see
+	 * {@link SearchProgress#getEvaluations()}.
+	 *
+	 * @param count
+	 *            the number of evaluated moves.
+	 * @return the criterion.
+	 */
+	public static StoppingCriterion evaluations(long count) {
+		return progress -> progress.getEvaluations() >= count;
+	}
+
+}
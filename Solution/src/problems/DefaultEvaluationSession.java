@@ -0,0 +1,87 @@
+package problems;
+
+import solutions.Solution;
+
+/**
+ * Session used by evaluators that keep no state derived from the solution.
+ * Every query is forwarded to the stateless methods of the {@link Evaluator}.
+ * 
+ * @author vferrari, gabrielsantosrv, satoru27
+ * @param <E>
+ *            Generic type of the element which composes the solution.
+ */
+public class DefaultEvaluationSession<E> implements EvaluationSession<E> {
+
+	/**
+	 * the evaluator queried by this session
+	 */
+	protected final Evaluator<E> evaluator;
+
+	/**
+	 * the solution bound to this session
+	 */
+	protected final Solution<E> sol;
+
+	/**
+	 * Constructor for the DefaultEvaluationSession class.
+	 * 
+	 * @param evaluator
+	 *            the evaluator queried by this session.
+	 * @param sol
+	 *            the solution bound to this session.
+	 */
+	public DefaultEvaluationSession(Evaluator<E> evaluator, Solution<E> sol) {
+		this.evaluator = evaluator;
+		this.sol = sol;
+	}
+
+	@Override
+	public Solution<E> getSolution() {
+		return sol;
+	}
+
+	@Override
+	public Double evaluateInsertionCost(E elem) {
+		return evaluator.evaluateInsertionCost(elem, sol);
+	}
+
+	@Override
+	public Double evaluateRemovalCost(E elem) {
+		return evaluator.evaluateRemovalCost(elem, sol);
+	}
+
+	@Override
+	public Double evaluateExchangeCost(E elemIn, E elemOut) {
+		return evaluator.evaluateExchangeCost(elemIn, elemOut, sol);
+	}
+
+	@Override
+	public void insert(E elem) {
+		sol.cost += evaluateInsertionCost(elem);
+		sol.add(elem);
+	}
+
+	@Override
+	public void remove(E elem) {
+		sol.cost += evaluateRemovalCost(elem);
+		sol.remove(elem);
+	}
+
+	@Override
+	public void exchange(E elemIn, E elemOut) {
+		if (elemIn.equals(elemOut))
+			return;
+		if (sol.contains(elemIn)) {
+			remove(elemOut);
+			return;
+		}
+		if (!sol.contains(elemOut)) {
+			insert(elemIn);
+			return;
+		}
+		sol.cost += evaluateExchangeCost(elemIn, elemOut);
+		sol.remove(elemOut);
+		sol.add(elemIn);
+	}
+
+}
@@ -0,0 +1,147 @@
+package problems;
+
+import java.util.List;
+
+import solutions.Solution;
+
+/**
+ * An EvaluationSession binds a solution to an {@link Evaluator}, so that the
+ * state the evaluator derives from the solution is built once and then kept
+ * up to date as moves are applied through the session, instead of being
+ * re-derived on every query. All cost variations are computed with respect to
+ * the bound solution, and applying a move also updates the solution cost.
+ * 
+ * The bound solution must only be modified through its session while the
+ * session is in use.
+ * 
+ * @author vferrari, gabrielsantosrv, satoru27
+ * @param <E>
+ *            Generic type of the element which composes the solution.
+ */
+public interface EvaluationSession<E> {
+
+	/**
+	 * Gives the solution bound to this session.
+	 * 
+	 * @return the bound solution.
+	 */
+	public abstract Solution<E> getSolution();
+
+	/**
+	 * Evaluates the cost variation of inserting an element into the bound
+	 * solution.
+	 * 
+	 * @param elem
+	 *            the element under consideration for insertion.
+	 * @return the cost variation resulting from the element insertion.
+	 */
+	public abstract Double evaluateInsertionCost(E elem);
+
+	/**
+	 * Evaluates the cost variation of removing an element from the bound
+	 * solution.
+	 * 
+	 * @param elem
+	 *            the element under consideration for removal.
+	 * @return the cost variation resulting from the element removal.
+	 */
+	public abstract Double evaluateRemovalCost(E elem);
+
+	/**
+	 * Evaluates the cost variation of exchanging an element of the bound
+	 * solution (elemOut) by another one (elemIn).
+	 * 
+	 * @param elemIn
+	 *            the element under consideration for insertion.
+	 * @param elemOut
+	 *            the element under consideration for removal.
+	 * @return the cost variation resulting from the elements exchange.
+	 */
+	public abstract Double evaluateExchangeCost(E elemIn, E elemOut);
+
+	/**
+	 * Evaluates the cost variation of inserting each of the given elements
+	 * into the bound solution.
+	 * 
+	 * @param elems
+	 *            the elements under consideration for insertion.
+	 * @param costs
+	 *            array whose k-th position receives the cost variation of
+	 *            inserting the k-th element of elems.
+	 */
+	public default void evaluateInsertionCosts(List<E> elems, double[] costs) {
+		int k = 0;
+		for (E elem : elems) {
+			costs[k++] = evaluateInsertionCost(elem);
+		}
+	}
+
+	/**
+	 * Evaluates the cost variation of removing each of the given elements from
+	 * the bound solution.
+	 * 
+	 * @param elems
+	 *            the elements under consideration for removal.
+	 * @param costs
+	 *            array whose k-th position receives the cost variation of
+	 *            removing the k-th element of elems.
+	 */
+	public default void evaluateRemovalCosts(List<E> elems, double[] costs) {
+		int k = 0;
+		for (E elem : elems) {
+			costs[k++] = evaluateRemovalCost(elem);
+		}
+	}
+
+	/**
+	 * Evaluates the cost variation of exchanging each of the given elements of
+	 * the bound solution by the same element elemIn, i.e., a row of the
+	 * exchange-delta matrix. Scanning the matrix row by row keeps the buffer
+	 * at the size of the solution instead of |elemsIn|*|elemsOut|.
+	 * 
+	 * @param elemIn
+	 *            the element under consideration for insertion.
+	 * @param elemsOut
+	 *            the elements under consideration for removal.
+	 * @param costs
+	 *            array whose k-th position receives the cost variation of
+	 *            exchanging the k-th element of elemsOut by elemIn.
+	 */
+	public default void evaluateExchangeCosts(E elemIn, List<E> elemsOut, double[] costs) {
+		int k = 0;
+		for (E elemOut : elemsOut) {
+			costs[k++] = evaluateExchangeCost(elemIn, elemOut);
+		}
+	}
+
+	/**
+	 * Inserts an element into the bound solution, updating its cost.
+	 * 
+	 * @param elem
+	 *            the element entering the solution.
+	 */
+	public abstract void insert(E elem);
+
+	/**
+	 * Removes an element from the bound solution, updating its cost.
+	 * 
+	 * @param elem
+	 *            the element leaving the solution.
+	 */
+	public abstract void remove(E elem);
+
+	/**
+	 * Exchanges an element of the bound solution by another one, updating its
+	 * cost. As for {@link #evaluateExchangeCost(Object, Object)}, if elemIn
+	 * is already in the solution the move is the removal of elemOut, and if
+	 * elemOut is not in the solution it is the insertion of elemIn, so the
+	 * cost is always updated by the evaluated exchange cost.
+	 * 
+	 * @param elemIn
+	 *            the element entering the solution.
+	 * @param elemOut
+	 *            the element leaving the solution.
+	 */
+	public abstract void exchange(E elemIn, E elemOut);
+
+}
@@ -75,4 +75,29 @@ public interface Evaluator<E> {
 	 */
 	public abstract Double evaluateExchangeCost(E elemIn, E elemOut, Solution<E> sol);
 
+	/**
+	 * Creates an evaluator of the same objective function that shares no
+	 * solution-dependent state with this one, so that both can be used by
+	 * different threads at the same time. Immutable problem data may be
+	 * shared between them.
+	 * 
+	 * @return the new evaluator.
+	 */
+	public abstract Evaluator<E> fork();
+
+	/**
+	 * Binds a solution to this evaluator, returning the session through which
+	 * the solution should be evaluated and modified from then on. Evaluators
+	 * keep a single bound solution, so opening a new session invalidates the
+	 * previous one. By default no state is kept and every query is forwarded
+	 * to the methods above.
+	 * 
+	 * @param sol
+	 *            the solution to be bound.
+	 * @return the session bound to the solution.
+	 */
+	public default EvaluationSession<E> openSession(Solution<E> sol) {
+		return new DefaultEvaluationSession<E>(this, sol);
+	}
+
 }
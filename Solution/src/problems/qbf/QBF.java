@@ -1,12 +1,14 @@
 package problems.qbf;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.StreamTokenizer;
 import java.util.Arrays;
+import java.util.List;
+import problems.EvaluationSession;
 import problems.Evaluator;
+import problems.qbf.io.BinaryInstance;
+import problems.qbf.io.TextInstanceParser;
+import problems.qbf.matrix.CoefficientMatrix;
+import solutions.IntElements;
 import solutions.Solution;
 
 /**
@@ -25,6 +27,31 @@ import solutions.Solution;
  */
 public class QBF implements Evaluator<Integer> {
 
+	/**
+	 * the number of threads used to parse text instances, see
+	 * {@link TextInstanceParser}.
+	 */
+	public static int parserThreads = 1;
+
+	/**
+	 * the storage layout of the matrix of coefficients of the instances read
+	 * from then on, see {@link CoefficientMatrix.Layout}.
+	 */
+	public static CoefficientMatrix.Layout matrixLayout = CoefficientMatrix.Layout.AUTO;
+
+	/**
+	 * every how many moves applied through a session the incremental cost of
+	 * the solution is checked against {@link #recomputeQBF()}, or 0 to never
+	 * check it. The check costs O(n*|S|), so small periods are only meant for
+	 * debugging.
+	 */
+	public static int verifyPeriod = 0;
+
+	/**
+	 * the relative tolerance of the checks enabled by {@link #verifyPeriod}.
+	 */
+	public static final double VERIFY_TOLERANCE = 1e-9;
+
 	/**
 	 * Dimension of the domain.
 	 */
@@ -33,12 +60,53 @@ public class QBF implements Evaluator<Integer> {
 	/**
 	 * The array of numbers representing the domain.
 	 */
-	public final Double[] variables;
+	public final double[] variables;
+
+	/**
+	 * The matrix A of coefficients for the QBFPT f(x) = x'.A.x, stored as
+	 * given by {@link #matrixLayout}.
+	 */
+	public CoefficientMatrix A;
+
+	/**
+	 * The factor applied to every value and cost variation returned: 1 for the
+	 * QBF itself, -1 for its inverse (see {@link QBF_Inverse}), so a
+	 * minimization procedure can maximize the QBF.
+	 */
+	protected final double sign;
+
+	/**
+	 * The contribution of each element to the solution bound to
+	 * {@link #variables}, i.e., g_i = a_{ii} + \sum{j != i}{x_j*(a_{ij}+a_{ji})}.
+	 * Inserting element i changes the QBF by g_i and removing it changes the
+	 * QBF by -g_i, so once the vector is up to date these are simple lookups.
+	 */
+	protected final double[] delta;
+
+	/**
+	 * The solution {@link #variables} and {@link #delta} currently refer to,
+	 * and its version at the time they were synchronized.
+	 */
+	private Solution<Integer> boundSol;
+	private int boundVersion;
+
+	/**
+	 * Auxiliary marks used to find the elements that left the bound solution.
+	 */
+	private final int[] marks;
+	private int markStamp;
 
 	/**
-	 * The matrix A of coefficients for the QBFPT f(x) = x'.A.x
+	 * Zeroed work array of the matrix, see
+	 * {@link CoefficientMatrix#pairs(int, int[], int, double[], double[])}.
 	 */
-	public Double[][] A;
+	private final double[] scratch;
+
+	/**
+	 * The number of moves applied through sessions since the last check of
+	 * the incremental cost, see {@link #verifyPeriod}.
+	 */
+	private int movesSinceCheck;
 
 	/**
 	 * The constructor for QuadracticBinaryFunction class. The filename of the
@@ -51,25 +119,105 @@ public class QBF implements Evaluator<Integer> {
 	 *             Necessary for I/O operations.
 	 */
 	public QBF(String filename) throws IOException {
+		this(filename, 1.0);
+	}
+
+	/**
+	 * Creates the evaluator of the QBF read from a file, or of its inverse.
+	 * 
+	 * @param filename
+	 *            Name of the file containing the input for setting the QBFPT.
+	 * @param sign
+	 *            1 for the QBF, -1 for its inverse, see {@link #sign}.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	protected QBF(String filename, double sign) throws IOException {
+		this.sign = sign;
 		size = readInput(filename);
 		variables = allocateVariables();
+		delta = new double[size];
+		marks = new int[size];
+		scratch = new double[size];
+		resetVariables();
+	}
+
+	/**
+	 * Creates an evaluator sharing the matrix of coefficients of another one,
+	 * but with its own domain variables.
+	 * 
+	 * @param qbf
+	 *            The evaluator whose coefficients are shared.
+	 */
+	protected QBF(QBF qbf) {
+		sign = qbf.sign;
+		size = qbf.size;
+		A = qbf.A;
+		variables = allocateVariables();
+		delta = new double[size];
+		marks = new int[size];
+		scratch = new double[size];
+		resetVariables();
 	}
 
 	/**
 	 * Evaluates the value of a solution by transforming it into a vector. This
 	 * is required to perform the matrix multiplication which defines a QBFPT.
+	 * The vector is updated incrementally: nothing is done if the solution has
+	 * not changed since the last call, otherwise only the elements that entered
+	 * or left the solution are applied to {@link #variables} and {@link #delta}.
 	 * 
 	 * @param sol
 	 *            the solution which will be evaluated.
 	 */
 	public void setVariables(Solution<Integer> sol) {
 
-		resetVariables();
-		if (!sol.isEmpty()) {
-			for (Integer elem : sol) {
-				variables[elem] = 1.0;
-			}
+		if (sol == boundSol && sol.getVersion() == boundVersion)
+			return;
+
+		markStamp++;
+		for (Integer elem : sol) {
+			marks[elem] = markStamp;
 		}
+		for (int i = 0; i < size; i++) {
+			if (variables[i] == 1 && marks[i] != markStamp)
+				removeVariable(i);
+		}
+		for (Integer elem : sol) {
+			if (variables[elem] == 0)
+				insertVariable(elem);
+		}
+
+		boundSol = sol;
+		boundVersion = sol.getVersion();
+
+	}
+
+	/**
+	 * Sets variable i to one, updating the contributions of all elements in
+	 * O(n) time.
+	 * 
+	 * @param i
+	 *            index of the element entering the solution.
+	 */
+	protected void insertVariable(int i) {
+
+		variables[i] = 1.0;
+		A.addRow(i, 1.0, delta);
+
+	}
+
+	/**
+	 * Sets variable i to zero, updating the contributions of all elements in
+	 * O(n) time.
+	 * 
+	 * @param i
+	 *            index of the element leaving the solution.
+	 */
+	protected void removeVariable(int i) {
+
+		variables[i] = 0.0;
+		A.addRow(i, -1.0, delta);
 
 	}
 
@@ -83,10 +231,35 @@ public class QBF implements Evaluator<Integer> {
 		return size;
 	}
 
+	/**
+	 * Gives, for each variable i, the other variables j that interact with it,
+	 * i.e., such that a_{ij} + a_{ji} is nonzero. Only the contributions of
+	 * these variables change when i enters or leaves the solution. The lists
+	 * are computed in O(n^2) time at each call.
+	 *
+	 * @return the variables interacting with each variable.
+	 */
+	public int[][] interactions() {
+
+		int[][] _interactions = new int[size][];
+		int[] buffer = new int[size];
+		for (int i = 0; i < size; i++) {
+			int count = 0;
+			for (int j = 0; j < size; j++) {
+				if (i != j && A.pair(i, j) != 0)
+					buffer[count++] = j;
+			}
+			_interactions[i] = Arrays.copyOf(buffer, count);
+		}
+		return _interactions;
+
+	}
+
 	/**
 	 * {@inheritDoc} In the case of a QBFPT, the evaluation correspond to
-	 * computing a matrix multiplication x'.A.x. A better way to evaluate this
-	 * function when at most two variables are modified is given by methods
+	 * computing x'.A.x, which is done in O(|S|) from the contributions, see
+	 * {@link #evaluateQBF()}. A better way to evaluate this function when at
+	 * most two variables are modified is given by methods
 	 * {@link #evaluateInsertionQBF(int)}, {@link #evaluateRemovalQBF(int)} and
 	 * {@link #evaluateExchangeQBF(int,int)}.
 	 * 
@@ -101,26 +274,81 @@ public class QBF implements Evaluator<Integer> {
 	}
 
 	/**
-	 * Evaluates a QBFPT by calculating the matrix multiplication that defines the
-	 * QBFPT: f(x) = x'.A.x .
+	 * {@inheritDoc} Only the matrix of coefficients is shared.
+	 */
+	@Override
+	public QBF fork() {
+		return new QBF(this);
+	}
+
+	/**
+	 * {@inheritDoc} The bound solution is kept in {@link #variables} and
+	 * {@link #delta}, so queries are answered in O(1) and each move applied
+	 * through the session costs O(n).
+	 */
+	@Override
+	public EvaluationSession<Integer> openSession(Solution<Integer> sol) {
+
+		setVariables(sol);
+		return new Session(sol);
+
+	}
+
+	/**
+	 * Evaluates a QBFPT f(x) = x'.A.x from the contributions of the elements
+	 * of the bound solution S, in O(|S|) time. Summing g_i over S counts each
+	 * a_{ii} once and each interaction of S twice, so f(x) = (\sum{i in
+	 * S}{g_i} + \sum{i in S}{a_{ii}}) / 2. If no solution is bound, or it
+	 * changed since, this falls back to {@link #recomputeQBF()}.
 	 * 
 	 * @return The value of the QBFPT.
 	 */
-	public Double evaluateQBF() {
+	public double evaluateQBF() {
 
-		Double aux = (double) 0, sum = (double) 0;
-		Double vecAux[] = new Double[size];
+		if (boundSol == null || boundSol.getVersion() != boundVersion)
+			return sign * A.evaluate(variables);
 
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				aux += variables[j] * A[i][j];
-			}
-			vecAux[i] = aux;
-			sum += aux * variables[i];
-			aux = (double) 0;
+		double sum = 0;
+		for (Integer i : boundSol) {
+			sum += delta[i] + A.diagonal(i);
 		}
+		return sign * sum / 2;
+
+	}
 
-		return sum;
+	/**
+	 * Evaluates a QBFPT by calculating the matrix multiplication that defines the
+	 * QBFPT: f(x) = x'.A.x, in O(n*|S|) time, without using the contributions
+	 * kept in {@link #delta}. It is the reference the incremental costs are
+	 * checked against, see {@link #verifyPeriod}.
+	 * 
+	 * @return The value of the QBFPT.
+	 */
+	public double recomputeQBF() {
+
+		return sign * A.evaluate(variables);
+
+	}
+
+	/**
+	 * Checks the cost of a solution bound to {@link #variables} against
+	 * {@link #recomputeQBF()}, once every {@link #verifyPeriod} calls.
+	 * 
+	 * @param sol
+	 *            the bound solution.
+	 * @throws IllegalStateException
+	 *             if the costs differ.
+	 */
+	private void verifyCost(Solution<Integer> sol) {
+
+		if (verifyPeriod <= 0 || ++movesSinceCheck < verifyPeriod)
+			return;
+		movesSinceCheck = 0;
+
+		double exact = recomputeQBF();
+		if (Math.abs(sol.cost - exact) > VERIFY_TOLERANCE * Math.max(1.0, Math.abs(exact)))
+			throw new IllegalStateException("incremental cost " + sol.cost + " differs from the full evaluation "
+					+ exact + " of " + sol);
 
 	}
 
@@ -147,12 +375,12 @@ public class QBF implements Evaluator<Integer> {
 	 * @return The variation of the objective function resulting from the
 	 *         insertion.
 	 */
-	public Double evaluateInsertionQBF(int i) {
+	public double evaluateInsertionQBF(int i) {
 
 		if (variables[i] == 1)
 			return 0.0;
 
-		return evaluateContributionQBF(i);
+		return sign * evaluateContributionQBF(i);
 	}
 
 	/*
@@ -178,12 +406,12 @@ public class QBF implements Evaluator<Integer> {
 	 * @return The variation of the objective function resulting from the
 	 *         removal.
 	 */
-	public Double evaluateRemovalQBF(int i) {
+	public double evaluateRemovalQBF(int i) {
 
 		if (variables[i] == 0)
 			return 0.0;
 
-		return -evaluateContributionQBF(i);
+		return -sign * evaluateContributionQBF(i);
 
 	}
 
@@ -214,9 +442,9 @@ public class QBF implements Evaluator<Integer> {
 	 * @return The variation of the objective function resulting from the
 	 *         exchange.
 	 */
-	public Double evaluateExchangeQBF(int in, int out) {
+	public double evaluateExchangeQBF(int in, int out) {
 
-		Double sum = 0.0;
+		double sum = 0;
 
 		if (in == out)
 			return 0.0;
@@ -227,42 +455,240 @@ public class QBF implements Evaluator<Integer> {
 
 		sum += evaluateContributionQBF(in);
 		sum -= evaluateContributionQBF(out);
-		sum -= (A[in][out] + A[out][in]);
+		sum -= A.pair(in, out);
+
+		return sign * sum;
+	}
+
+	/**
+	 * Determines the contribution to the QBF objective function from the
+	 * insertion of each of the given elements, as
+	 * {@link #evaluateInsertionQBF(int)} does for a single element.
+	 * 
+	 * @param elems
+	 *            Indices of the elements being inserted into the solution.
+	 * @param count
+	 *            Number of elements, i.e., of positions of elems to be read.
+	 * @param costs
+	 *            Array receiving the variation of the objective function
+	 *            resulting from each insertion.
+	 */
+	public void evaluateInsertionQBF(int[] elems, int count, double[] costs) {
+
+		for (int k = 0; k < count; k++) {
+			int i = elems[k];
+			costs[k] = (variables[i] == 1) ? 0.0 : sign * delta[i];
+		}
+
+	}
+
+	/**
+	 * Determines the contribution to the QBF objective function from the
+	 * removal of each of the given elements, as
+	 * {@link #evaluateRemovalQBF(int)} does for a single element.
+	 * 
+	 * @param elems
+	 *            Indices of the elements being removed from the solution.
+	 * @param count
+	 *            Number of elements, i.e., of positions of elems to be read.
+	 * @param costs
+	 *            Array receiving the variation of the objective function
+	 *            resulting from each removal.
+	 */
+	public void evaluateRemovalQBF(int[] elems, int count, double[] costs) {
+
+		for (int k = 0; k < count; k++) {
+			int i = elems[k];
+			costs[k] = (variables[i] == 0) ? 0.0 : -sign * delta[i];
+		}
+
+	}
+
+	/**
+	 * Determines the contribution to the QBF objective function from the
+	 * exchange of each of the given elements by the same element in, as
+	 * {@link #evaluateExchangeQBF(int, int)} does for a single pair.
+	 * 
+	 * @param in
+	 *            The index of the element that is considered entering the
+	 *            solution.
+	 * @param outs
+	 *            The indices of the elements that are considered exiting the
+	 *            solution.
+	 * @param count
+	 *            Number of elements, i.e., of positions of outs to be read.
+	 * @param costs
+	 *            Array receiving the variation of the objective function
+	 *            resulting from each exchange.
+	 */
+	public void evaluateExchangeQBF(int in, int[] outs, int count, double[] costs) {
+
+		double deltaIn = (variables[in] == 1) ? 0.0 : delta[in];
+
+		// The interactions of in with the whole row are gathered at once,
+		// which is cheaper than one lookup per pair for the SPARSE layout.
+		if (variables[in] == 0)
+			A.pairs(in, outs, count, costs, scratch);
+
+		for (int k = 0; k < count; k++) {
+			int out = outs[k];
+			if (out == in)
+				costs[k] = 0.0;
+			else if (variables[out] == 0)
+				costs[k] = sign * deltaIn;
+			else if (variables[in] == 1)
+				costs[k] = -sign * delta[out];
+			else
+				costs[k] = sign * (deltaIn - delta[out] - costs[k]);
+		}
 
-		return sum;
 	}
 
 	/**
 	 * Determines the contribution to the QBFPT objective function from the
 	 * insertion of an element. This method is faster than evaluating the whole
-	 * solution, since it uses the fact that only one line and one column from
-	 * matrix A needs to be evaluated when inserting a new element into the
-	 * solution. This method is different from {@link #evaluateInsertionQBF(int)},
-	 * since it disregards the fact that the element might already be in the
-	 * solution.
+	 * solution, since the contribution is kept up to date in {@link #delta}
+	 * whenever a variable changes. This method is different from
+	 * {@link #evaluateInsertionQBF(int)}, since it disregards the fact that the
+	 * element might already be in the solution.
 	 * 
 	 * @param i
 	 *            index of the element being inserted into the solution.
 	 * @return the variation of the objective function resulting from the
 	 *         insertion.
 	 */
-	private Double evaluateContributionQBF(int i) {
+	private double evaluateContributionQBF(int i) {
+		return delta[i];
+	}
+
+	/**
+	 * Session that applies moves directly to {@link #variables} and
+	 * {@link #delta}. Queries check that the evaluator is still bound to the
+	 * session solution, which costs O(1) unless another solution was evaluated
+	 * in between.
+	 */
+	protected class Session implements EvaluationSession<Integer> {
+
+		private final Solution<Integer> sol;
 
-		Double sum = 0.0;
+		protected Session(Solution<Integer> sol) {
+			this.sol = sol;
+		}
 
-		for (int j = 0; j < size; j++) {
-			if (i != j)
-				sum += variables[j] * (A[i][j] + A[j][i]);
+		@Override
+		public Solution<Integer> getSolution() {
+			return sol;
+		}
+
+		@Override
+		public Double evaluateInsertionCost(Integer elem) {
+			setVariables(sol);
+			return evaluateInsertionQBF(elem);
+		}
+
+		@Override
+		public Double evaluateRemovalCost(Integer elem) {
+			setVariables(sol);
+			return evaluateRemovalQBF(elem);
+		}
+
+		@Override
+		public Double evaluateExchangeCost(Integer elemIn, Integer elemOut) {
+			setVariables(sol);
+			return evaluateExchangeQBF(elemIn, elemOut);
+		}
+
+		@Override
+		public void evaluateInsertionCosts(List<Integer> elems, double[] costs) {
+			if (!(elems instanceof IntElements)) {
+				EvaluationSession.super.evaluateInsertionCosts(elems, costs);
+				return;
+			}
+			setVariables(sol);
+			IntElements _elems = (IntElements) elems;
+			evaluateInsertionQBF(_elems.elements(), _elems.size(), costs);
+		}
+
+		@Override
+		public void evaluateRemovalCosts(List<Integer> elems, double[] costs) {
+			if (!(elems instanceof IntElements)) {
+				EvaluationSession.super.evaluateRemovalCosts(elems, costs);
+				return;
+			}
+			setVariables(sol);
+			IntElements _elems = (IntElements) elems;
+			evaluateRemovalQBF(_elems.elements(), _elems.size(), costs);
+		}
+
+		@Override
+		public void evaluateExchangeCosts(Integer elemIn, List<Integer> elemsOut, double[] costs) {
+			if (!(elemsOut instanceof IntElements)) {
+				EvaluationSession.super.evaluateExchangeCosts(elemIn, elemsOut, costs);
+				return;
+			}
+			setVariables(sol);
+			IntElements _elemsOut = (IntElements) elemsOut;
+			evaluateExchangeQBF(elemIn, _elemsOut.elements(), _elemsOut.size(), costs);
+		}
+
+		@Override
+		public void insert(Integer elem) {
+			setVariables(sol);
+			if (variables[elem] == 1)
+				return;
+			sol.cost += evaluateInsertionQBF(elem);
+			sol.add(elem);
+			insertVariable(elem);
+			boundVersion = sol.getVersion();
+			verifyCost(sol);
+		}
+
+		@Override
+		public void remove(Integer elem) {
+			setVariables(sol);
+			if (variables[elem] == 0)
+				return;
+			sol.cost += evaluateRemovalQBF(elem);
+			sol.remove(elem);
+			removeVariable(elem);
+			boundVersion = sol.getVersion();
+			verifyCost(sol);
+		}
+
+		@Override
+		public void exchange(Integer elemIn, Integer elemOut) {
+			setVariables(sol);
+			// Degenerate exchanges are applied as the move their cost, given
+			// by evaluateExchangeQBF, stands for.
+			if (elemIn.equals(elemOut))
+				return;
+			if (variables[elemIn] == 1) {
+				remove(elemOut);
+				return;
+			}
+			if (variables[elemOut] == 0) {
+				insert(elemIn);
+				return;
+			}
+			sol.cost += evaluateExchangeQBF(elemIn, elemOut);
+			sol.remove(elemOut);
+			sol.add(elemIn);
+			removeVariable(elemOut);
+			insertVariable(elemIn);
+			boundVersion = sol.getVersion();
+			verifyCost(sol);
 		}
-		sum += A[i][i];
 
-		return sum;
 	}
 
 	/**
 	 * Responsible for setting the QBFPT function parameters by reading the
 	 * necessary input from an external file. This method reads the domain's
-	 * dimension and matrix {@link #A}.
+	 * dimension and matrix {@link #A}, either from a text instance or from a
+	 * memory-mapped binary instance (see {@link BinaryInstance}). With the
+	 * MAPPED and OFFHEAP layouts, a binary instance of dense layout is read
+	 * in place instead of being copied into the heap. The OFFHEAP layout only
+	 * reads such instances, so any other is rejected before it is loaded.
 	 * 
 	 * @param filename
 	 *            Name of the file containing the input for setting the black
@@ -270,25 +696,42 @@ public class QBF implements Evaluator<Integer> {
 	 * @return The dimension of the domain.
 	 * @throws IOException
 	 *             Necessary for I/O operations.
+	 * @throws IllegalArgumentException
+	 *             if the layout is OFFHEAP and the instance is not a binary
+	 *             instance of dense layout.
 	 */
 	protected Integer readInput(String filename) throws IOException {
 
-		Reader fileInst = new BufferedReader(new FileReader(filename));
-		StreamTokenizer stok = new StreamTokenizer(fileInst);
+		Integer _size;
+		double[] upper;
+		boolean binary = BinaryInstance.isBinary(filename);
 
-		stok.nextToken();
-		Integer _size = (int) stok.nval;
-		A = new Double[_size][_size];
+		if (matrixLayout == CoefficientMatrix.Layout.OFFHEAP && !binary)
+			throw new IllegalArgumentException(filename + ": the OFFHEAP layout only reads binary instances of UPPER"
+					+ " or FULL layout, convert the instance with BinaryInstance or use another layout");
 
-		for (int i = 0; i < _size; i++) {
-			for (int j = i; j < _size; j++) {
-				stok.nextToken();
-				A[i][j] = stok.nval;
-				if (j>i)
-					A[j][i] = 0.0;
+		if (binary) {
+			BinaryInstance instance = BinaryInstance.map(filename);
+			_size = instance.getSize();
+			if (matrixLayout == CoefficientMatrix.Layout.MAPPED && instance.isDense()) {
+				A = instance.matrix();
+				return _size;
+			}
+			if (matrixLayout == CoefficientMatrix.Layout.OFFHEAP) {
+				if (!instance.isDense())
+					throw new IllegalArgumentException(filename
+							+ ": the OFFHEAP layout only reads binary instances of UPPER or FULL layout, not SPARSE");
+				A = instance.offHeapMatrix();
+				return _size;
 			}
+			upper = instance.upper();
+		} else {
+			TextInstanceParser parser = new TextInstanceParser(filename, parserThreads);
+			_size = parser.getSize();
+			upper = parser.getUpper();
 		}
 
+		A = CoefficientMatrix.of(upper, _size, matrixLayout);
 		return _size;
 
 	}
@@ -299,16 +742,21 @@ public class QBF implements Evaluator<Integer> {
 	 * 
 	 * @return a pointer to the array of domain variables.
 	 */
-	protected Double[] allocateVariables() {
-		Double[] _variables = new Double[size];
+	protected double[] allocateVariables() {
+		double[] _variables = new double[size];
 		return _variables;
 	}
 
 	/**
-	 * Reset the domain variables to their default values.
+	 * Reset the domain variables to their default values. With no element in
+	 * the solution, the contribution of each element is its diagonal term.
 	 */
 	public void resetVariables() {
 		Arrays.fill(variables, 0.0);
+		for (int i = 0; i < size; i++) {
+			delta[i] = A.diagonal(i);
+		}
+		boundSol = null;
 	}
 
 	/**
@@ -317,8 +765,9 @@ public class QBF implements Evaluator<Integer> {
 	public void printMatrix() {
 
 		for (int i = 0; i < size; i++) {
-			for (int j = i; j < size; j++) {
-				System.out.print(A[i][j] + " ");
+			System.out.print(A.diagonal(i) + " ");
+			for (int j = i + 1; j < size; j++) {
+				System.out.print(A.pair(i, j) + " ");
 			}
 			System.out.println();
 		}
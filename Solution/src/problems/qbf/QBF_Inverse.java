@@ -5,7 +5,8 @@ import java.io.IOException;
 /**
  * Class representing the inverse of the Quadractic Binary Function
  * ({@link QBF}), which is used since the GRASP is set by
- * default as a minimization procedure.
+ * default as a minimization procedure. Every value and cost variation of
+ * the function is negated by {@link QBF}, through its sign.
  * 
  * @author ccavellucci, fusberti
  */
@@ -21,40 +22,26 @@ public class QBF_Inverse extends QBF {
 	 *             Necessary for I/O operations.
 	 */
 	public QBF_Inverse(String filename) throws IOException {
-		super(filename);
+		super(filename, -1.0);
 	}
 
-
-	/* (non-Javadoc)
-	 * @see problems.qbf.QBFPT#evaluate()
-	 */
-	@Override
-	public Double evaluateQBF() {
-		return -super.evaluateQBF();
-	}
-	
-	/* (non-Javadoc)
-	 * @see problems.qbf.QBFPT#evaluateInsertion(int)
-	 */
-	@Override
-	public Double evaluateInsertionQBF(int i) {	
-		return -super.evaluateInsertionQBF(i);
-	}
-	
-	/* (non-Javadoc)
-	 * @see problems.qbf.QBFPT#evaluateRemoval(int)
+	/**
+	 * Creates an evaluator sharing the problem data of another one, but with
+	 * its own domain variables.
+	 * 
+	 * @param qbf
+	 *            The evaluator whose problem data is shared.
 	 */
-	@Override
-	public Double evaluateRemovalQBF(int i) {
-		return -super.evaluateRemovalQBF(i);
+	protected QBF_Inverse(QBF_Inverse qbf) {
+		super(qbf);
 	}
-	
+
 	/* (non-Javadoc)
-	 * @see problems.qbf.QBFPT#evaluateExchange(int, int)
+	 * @see problems.qbf.QBF#fork()
 	 */
 	@Override
-	public Double evaluateExchangeQBF(int in, int out) {
-		return -super.evaluateExchangeQBF(in,out);
+	public QBF_Inverse fork() {
+		return new QBF_Inverse(this);
 	}
 
 }
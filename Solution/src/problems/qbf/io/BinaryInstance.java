@@ -0,0 +1,593 @@
+package problems.qbf.io;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import problems.qbf.matrix.CoefficientMatrix;
+import problems.qbf.matrix.PackedMatrix;
+
+/**
+ * Compact binary format for QBF instances, loaded by memory-mapping the file,
+ * so no parsing is involved and processes opening the same instance share it
+ * through the page cache. Instances of UPPER or FULL layout can be solved
+ * straight from the mapping, see {@link #matrix()} and
+ * {@link #offHeapMatrix()}; otherwise the
+ * coefficients are copied into a heap layout, see {@link #copyUpperTo}. All
+ * values are little-endian. The file starts with
+ * a header of {@link #HEADER_BYTES} bytes:
+ *
+ * <pre>
+ * int   magic      "QBF1"
+ * int   n          number of variables
+ * byte  type       coefficient type, see {@link CoefficientType}
+ * byte  layout     coefficient layout, see {@link Layout}
+ * short reserved   zero
+ * long  count      number of stored coefficients
+ * int   reserved   zero
+ * </pre>
+ *
+ * followed by the coefficients. The UPPER layout stores the n(n+1)/2
+ * coefficients a_{ij}, j &ge; i, row by row; FULL stores the n*n coefficients
+ * row by row; SPARSE stores the count nonzero coefficients as three arrays:
+ * the rows (int), the columns (int) and the values. Each array starts at an
+ * offset multiple of its element size.
+ *
+ * A text instance is converted by running this class:
+ *
+ * <pre>
+ * java problems.qbf.io.BinaryInstance input output [upper|full|sparse]
+ * </pre>
+ *
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public class BinaryInstance {
+
+	/**
+	 * Layout of the coefficients in the file.
+	 */
+	public enum Layout {
+		UPPER,
+		FULL,
+		SPARSE
+	}
+
+	/**
+	 * Type of the coefficients in the file. The integer types are used when
+	 * every coefficient is an integer in their range.
+	 */
+	public enum CoefficientType {
+		INT8(1),
+		INT16(2),
+		INT32(4),
+		DOUBLE(8);
+
+		/**
+		 * the size of a coefficient, in bytes.
+		 */
+		public final int bytes;
+
+		private CoefficientType(int bytes) {
+			this.bytes = bytes;
+		}
+
+		/**
+		 * Gives the narrowest type that represents every given coefficient
+		 * exactly.
+		 *
+		 * @param A
+		 *            the coefficients.
+		 * @return the coefficient type.
+		 */
+		public static CoefficientType of(double[] A) {
+			double min = 0, max = 0;
+			for (double a : A) {
+				if (a != Math.rint(a) || Double.isInfinite(a))
+					return DOUBLE;
+				if (a < min)
+					min = a;
+				if (a > max)
+					max = a;
+			}
+			if (min >= Byte.MIN_VALUE && max <= Byte.MAX_VALUE)
+				return INT8;
+			if (min >= Short.MIN_VALUE && max <= Short.MAX_VALUE)
+				return INT16;
+			if (min >= Integer.MIN_VALUE && max <= Integer.MAX_VALUE)
+				return INT32;
+			return DOUBLE;
+		}
+	}
+
+	/**
+	 * "QBF1" read as a little-endian int.
+	 */
+	public static final int MAGIC = 0x31464251;
+
+	/**
+	 * the size of the header, in bytes.
+	 */
+	public static final int HEADER_BYTES = 24;
+
+	/**
+	 * the size of each mapped region, so files larger than 2GB can be mapped.
+	 * It is a multiple of every element size, hence no element crosses two
+	 * regions.
+	 */
+	private static final int CHUNK_BITS = 30;
+
+	/**
+	 * the instance file.
+	 */
+	final Path path;
+
+	private final int size;
+
+	private final CoefficientType type;
+
+	private final Layout layout;
+
+	private final long count;
+
+	/**
+	 * the offset of the first coefficient value in the file.
+	 */
+	final long base;
+
+	/**
+	 * the mapped regions of the file, the i-th one starting at offset
+	 * i << {@link #CHUNK_BITS}.
+	 */
+	private final ByteBuffer[] chunks;
+
+	private BinaryInstance(Path path, int size, CoefficientType type, Layout layout, long count,
+			ByteBuffer[] chunks) {
+		this.path = path;
+		this.size = size;
+		this.type = type;
+		this.layout = layout;
+		this.count = count;
+		this.chunks = chunks;
+		this.base = valuesOffset(count, type, layout);
+	}
+
+	/**
+	 * Tests whether a file is a binary instance, by looking at its first
+	 * bytes.
+	 *
+	 * @param filename
+	 *            the instance file.
+	 * @return true if the file starts with the binary instance magic.
+	 * @throws IOException
+	 *             if the file cannot be read.
+	 */
+	public static boolean isBinary(String filename) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+			while (magic.hasRemaining() && channel.read(magic) >= 0)
+				;
+			return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+		}
+	}
+
+	/**
+	 * Maps a binary instance into memory, checking its header against the
+	 * file size.
+	 *
+	 * @param filename
+	 *            the instance file.
+	 * @return the mapped instance.
+	 * @throws IOException
+	 *             if the file cannot be mapped or is not a valid instance.
+	 */
+	public static BinaryInstance map(String filename) throws IOException {
+		Path path = Paths.get(filename);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+			if (fileSize < HEADER_BYTES)
+				throw new IOException(filename + ": truncated header");
+
+			int nChunks = (int) ((fileSize - 1) >>> CHUNK_BITS) + 1;
+			ByteBuffer[] chunks = new ByteBuffer[nChunks];
+			for (int c = 0; c < nChunks; c++) {
+				long start = (long) c << CHUNK_BITS;
+				long length = Math.min(fileSize - start, 1L << CHUNK_BITS);
+				chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, start, length).order(ByteOrder.LITTLE_ENDIAN);
+			}
+
+			ByteBuffer header = chunks[0];
+			if (header.getInt(0) != MAGIC)
+				throw new IOException(filename + ": not a binary instance");
+			int size = header.getInt(4);
+			int typeIndex = header.get(8), layoutIndex = header.get(9);
+			long count = header.getLong(12);
+			if (size < 0 || typeIndex < 0 || typeIndex >= CoefficientType.values().length || layoutIndex < 0
+					|| layoutIndex >= Layout.values().length || count < 0)
+				throw new IOException(filename + ": invalid header");
+
+			BinaryInstance instance = new BinaryInstance(path, size, CoefficientType.values()[typeIndex],
+					Layout.values()[layoutIndex], count, chunks);
+			if (instance.layout != Layout.SPARSE && count != denseCount(size, instance.layout))
+				throw new IOException(filename + ": coefficient count does not match n = " + size);
+			if (instance.layout == Layout.SPARSE && size > PackedMatrix.MAX_SIZE)
+				throw new IOException(filename + ": n = " + size + " exceeds " + PackedMatrix.MAX_SIZE
+						+ ", the most variables of the upper triangle a SPARSE instance is copied into");
+			if (fileSize != fileSize(count, instance.type, instance.layout))
+				throw new IOException(filename + ": expected " + fileSize(count, instance.type, instance.layout)
+						+ " bytes, found " + fileSize);
+			return instance;
+		}
+	}
+
+	/**
+	 * Gives the number of coefficients of a dense layout.
+	 */
+	private static long denseCount(int size, Layout layout) {
+		return (layout == Layout.UPPER) ? (long) size * (size + 1) / 2 : (long) size * size;
+	}
+
+	/**
+	 * Gives the offset of the values of a layout, i.e., right after the
+	 * header, or after the rows and columns for the SPARSE layout, aligned to
+	 * the size of a value.
+	 */
+	private static long valuesOffset(long count, CoefficientType type, Layout layout) {
+		if (layout != Layout.SPARSE)
+			return HEADER_BYTES;
+		long offset = HEADER_BYTES + 8 * count;
+		return (offset + type.bytes - 1) / type.bytes * type.bytes;
+	}
+
+	private static long fileSize(long count, CoefficientType type, Layout layout) {
+		return valuesOffset(count, type, layout) + count * type.bytes;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public CoefficientType getCoefficientType() {
+		return type;
+	}
+
+	public Layout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * Gives the number of coefficients stored in the file.
+	 *
+	 * @return the number of coefficients.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	private int getInt(long offset) {
+		return chunks[(int) (offset >>> CHUNK_BITS)].getInt((int) (offset & ((1 << CHUNK_BITS) - 1)));
+	}
+
+	/**
+	 * Reads the k-th value of the coefficients section.
+	 */
+	private double value(long base, long k) {
+		long offset = base + k * type.bytes;
+		ByteBuffer chunk = chunks[(int) (offset >>> CHUNK_BITS)];
+		int pos = (int) (offset & ((1 << CHUNK_BITS) - 1));
+		switch (type) {
+		case INT8:
+			return chunk.get(pos);
+		case INT16:
+			return chunk.getShort(pos);
+		case INT32:
+			return chunk.getInt(pos);
+		default:
+			return chunk.getDouble(pos);
+		}
+	}
+
+	/**
+	 * Reads the k-th stored coefficient.
+	 *
+	 * @param k
+	 *            the position of the coefficient, in [0, count).
+	 * @return the coefficient.
+	 */
+	double coefficient(long k) {
+		return value(base, k);
+	}
+
+	/**
+	 * Tests whether the coefficients can be read in place, see
+	 * {@link #matrix()}.
+	 *
+	 * @return true for the UPPER and FULL layouts.
+	 */
+	public boolean isDense() {
+		return layout != Layout.SPARSE;
+	}
+
+	/**
+	 * Gives the coefficient matrix read in place from the mapped file,
+	 * without copying it into the Java heap, see {@link MappedMatrix}.
+	 *
+	 * @return the matrix.
+	 * @throws IllegalStateException
+	 *             if the layout is SPARSE, whose coefficients must be copied
+	 *             with {@link #copyUpperTo(double[])}.
+	 */
+	public CoefficientMatrix matrix() {
+		if (!isDense())
+			throw new IllegalStateException("a SPARSE binary instance cannot be read in place");
+		return new MappedMatrix(this);
+	}
+
+	/**
+	 * Gives the coefficient matrix read in place from a mapping of the file
+	 * through the Foreign Memory API, see ForeignMappedMatrix, which
+	 * addresses the whole file with long offsets instead of 1GB regions. The
+	 * class is compiled from src-foreign on JDK 22 or later, see pom.xml, and
+	 * loaded by reflection; if it is not available, the reason is reported on
+	 * the standard error and the matrix of {@link #matrix()} is given.
+	 *
+	 * @return the matrix.
+	 * @throws IOException
+	 *             if the file cannot be mapped again.
+	 * @throws IllegalStateException
+	 *             if the layout is SPARSE.
+	 */
+	public CoefficientMatrix offHeapMatrix() throws IOException {
+		if (!isDense())
+			throw new IllegalStateException("a SPARSE binary instance cannot be read in place");
+		Throwable failure;
+		try {
+			Class<?> type = Class.forName("problems.qbf.io.ForeignMappedMatrix");
+			return (CoefficientMatrix) type.getConstructor(BinaryInstance.class).newInstance(this);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			failure = e.getCause();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			failure = e;
+		}
+		System.err.println("warning: problems.qbf.io.ForeignMappedMatrix is not available (" + failure
+				+ "); it needs JDK 22 or later and the build of pom.xml");
+		System.err.println("warning: reading " + path + " through the mapped ByteBuffers instead");
+		return matrix();
+	}
+
+	/**
+	 * Copies the coefficients into a new packed upper triangle, see
+	 * {@link #copyUpperTo(double[])}.
+	 *
+	 * @return the packed upper triangle.
+	 * @throws IOException
+	 *             if n exceeds {@link PackedMatrix#MAX_SIZE}, so the triangle
+	 *             does not fit in an array and the instance can only be read
+	 *             in place, or if a SPARSE coefficient lies outside the
+	 *             matrix.
+	 */
+	public double[] upper() throws IOException {
+		if (size > PackedMatrix.MAX_SIZE)
+			throw new IOException(path + ": n = " + size + " exceeds " + PackedMatrix.MAX_SIZE
+					+ ", the most variables of an upper triangle in the heap; use the MAPPED or OFFHEAP layout");
+		double[] upper = new double[PackedMatrix.length(size)];
+		copyUpperTo(upper);
+		return upper;
+	}
+
+	/**
+	 * Copies the coefficients into the packed upper triangle, see
+	 * {@link PackedMatrix#index(int, int, int)}. A coefficient a_{ij} of the
+	 * lower triangle is added to a_{ji}, which leaves the QBF unchanged.
+	 *
+	 * @param upper
+	 *            the packed upper triangle, zeroed, with n(n+1)/2 positions.
+	 * @throws IOException
+	 *             if a SPARSE coefficient lies outside the matrix.
+	 */
+	public void copyUpperTo(double[] upper) throws IOException {
+		long k = 0;
+		switch (layout) {
+		case UPPER:
+			for (; k < count; k++) {
+				upper[(int) k] = value(base, k);
+			}
+			break;
+		case FULL:
+			for (int i = 0; i < size; i++) {
+				for (int j = 0; j < size; j++) {
+					upper[(i <= j) ? PackedMatrix.index(i, j, size) : PackedMatrix.index(j, i, size)] += value(base,
+							k++);
+				}
+			}
+			break;
+		case SPARSE:
+			for (; k < count; k++) {
+				int i = getInt(HEADER_BYTES + 4 * k), j = getInt(HEADER_BYTES + 4 * (count + k));
+				if (i < 0 || i >= size || j < 0 || j >= size)
+					throw new IOException("coefficient " + k + " at (" + i + ", " + j + ") is outside the matrix");
+				upper[(i <= j) ? PackedMatrix.index(i, j, size) : PackedMatrix.index(j, i, size)] += value(base, k);
+			}
+			break;
+		}
+	}
+
+	/**
+	 * Writes a matrix of coefficients as a binary instance, using the
+	 * narrowest coefficient type that represents it exactly.
+	 *
+	 * @param filename
+	 *            the instance file.
+	 * @param upper
+	 *            the packed upper triangle of the matrix, see
+	 *            {@link PackedMatrix#index(int, int, int)}.
+	 * @param size
+	 *            the number of variables.
+	 * @param layout
+	 *            the layout of the coefficients. The FULL layout is written
+	 *            with the lower triangle zeroed.
+	 * @throws IOException
+	 *             if the file cannot be written.
+	 */
+	public static void write(String filename, double[] upper, int size, Layout layout) throws IOException {
+
+		CoefficientType type = CoefficientType.of(upper);
+		long count;
+		if (layout == Layout.SPARSE) {
+			count = 0;
+			for (double a : upper) {
+				if (a != 0)
+					count++;
+			}
+		} else {
+			count = denseCount(size, layout);
+		}
+
+		try (Output out = new Output(Paths.get(filename), type)) {
+			out.buffer.putInt(MAGIC).putInt(size).put((byte) type.ordinal()).put((byte) layout.ordinal())
+					.putShort((short) 0).putLong(count).putInt(0);
+
+			switch (layout) {
+			case UPPER:
+				for (double a : upper) {
+					out.putValue(a);
+				}
+				break;
+			case FULL:
+				for (int i = 0; i < size; i++) {
+					for (int j = 0; j < size; j++) {
+						out.putValue((j >= i) ? upper[PackedMatrix.index(i, j, size)] : 0.0);
+					}
+				}
+				break;
+			case SPARSE:
+				for (int i = 0, k = 0; i < size; i++) {
+					for (int j = i; j < size; j++) {
+						if (upper[k++] != 0)
+							out.putInt(i);
+					}
+				}
+				for (int i = 0, k = 0; i < size; i++) {
+					for (int j = i; j < size; j++) {
+						if (upper[k++] != 0)
+							out.putInt(j);
+					}
+				}
+				out.pad(valuesOffset(count, type, layout) - HEADER_BYTES - 8 * count);
+				for (double a : upper) {
+					if (a != 0)
+						out.putValue(a);
+				}
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Buffered little-endian writer of an instance file.
+	 */
+	private static class Output implements AutoCloseable {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+		private final CoefficientType type;
+
+		Output(Path path, CoefficientType type) throws IOException {
+			this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+			this.type = type;
+		}
+
+		private void reserve(int bytes) throws IOException {
+			if (buffer.remaining() < bytes)
+				flush();
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+			buffer.clear();
+		}
+
+		void putInt(int v) throws IOException {
+			reserve(4);
+			buffer.putInt(v);
+		}
+
+		void pad(long bytes) throws IOException {
+			for (long b = 0; b < bytes; b++) {
+				reserve(1);
+				buffer.put((byte) 0);
+			}
+		}
+
+		void putValue(double v) throws IOException {
+			reserve(8);
+			switch (type) {
+			case INT8:
+				buffer.put((byte) v);
+				break;
+			case INT16:
+				buffer.putShort((short) v);
+				break;
+			case INT32:
+				buffer.putInt((int) v);
+				break;
+			default:
+				buffer.putDouble(v);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				flush();
+			} finally {
+				channel.close();
+			}
+		}
+	}
+
+	/**
+	 * Converts a text instance into a binary instance. The layout is the
+	 * third argument, by default SPARSE if at most a third of the upper
+	 * triangle is nonzero and UPPER otherwise.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		if (args.length < 2) {
+			System.err.println("usage: BinaryInstance input output [upper|full|sparse]");
+			System.exit(1);
+		}
+
+		TextInstanceParser parser = new TextInstanceParser(args[0]);
+		double[] upper = parser.getUpper();
+		int n = parser.getSize();
+		Layout layout;
+		if (args.length > 2) {
+			layout = Layout.valueOf(args[2].toUpperCase());
+		} else {
+			long nonzeros = 0;
+			for (double a : upper) {
+				if (a != 0)
+					nonzeros++;
+			}
+			layout = (3 * nonzeros <= upper.length) ? Layout.SPARSE : Layout.UPPER;
+		}
+
+		write(args[1], upper, n, layout);
+		System.out.println(args[1] + ": n = " + n + ", " + layout + ", " + CoefficientType.of(upper) + ", "
+				+ Files.size(Paths.get(args[1])) + " bytes");
+	}
+
+}
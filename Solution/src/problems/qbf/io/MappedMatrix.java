@@ -0,0 +1,120 @@
+package problems.qbf.io;
+
+import problems.qbf.matrix.CoefficientMatrix;
+
+/**
+ * Coefficient matrix read in place from a memory-mapped binary instance of
+ * UPPER or FULL layout, see {@link BinaryInstance#matrix()}. Nothing is
+ * copied into the Java heap: every coefficient is decoded from the mapped
+ * file when it is used, so loading takes no time and processes solving the
+ * same instance share it through the page cache, at the price of slower
+ * scans than the heap layouts. With the FULL layout, the interaction of two
+ * variables is a_{ij} + a_{ji}, read from both triangles.
+ *
+ * The coefficients are decoded from the ByteBuffers of the instance, which
+ * map the file in regions of 1GB. Subclasses may read them from another
+ * mapping of the same file by overriding {@link #coefficient(long)}.
+ *
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public class MappedMatrix implements CoefficientMatrix {
+
+	private final BinaryInstance instance;
+
+	private final int size;
+
+	private final boolean full;
+
+	/**
+	 * the position of a_{ij}, j &ge; i, among the coefficients of the file is
+	 * rowStart[i] + j; for the FULL layout, it is also valid for j &lt; i.
+	 */
+	private final long[] rowStart;
+
+	/**
+	 * Creates the matrix over a mapped instance.
+	 *
+	 * @param instance
+	 *            the instance, of UPPER or FULL layout.
+	 */
+	MappedMatrix(BinaryInstance instance) {
+		this.instance = instance;
+		this.size = instance.getSize();
+		this.full = (instance.getLayout() == BinaryInstance.Layout.FULL);
+		this.rowStart = new long[size];
+		for (int i = 0; i < size; i++) {
+			rowStart[i] = full ? (long) i * size : (long) i * size - (long) i * (i + 1) / 2;
+		}
+	}
+
+	/**
+	 * Reads the k-th stored coefficient of the instance.
+	 *
+	 * @param k
+	 *            the position of the coefficient.
+	 * @return the coefficient.
+	 */
+	protected double coefficient(long k) {
+		return instance.coefficient(k);
+	}
+
+	/**
+	 * Reads a_{ij} from the file, which must be stored, i.e., j &ge; i unless
+	 * the layout is FULL.
+	 */
+	private double at(int i, int j) {
+		return coefficient(rowStart[i] + j);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public double diagonal(int i) {
+		return at(i, i);
+	}
+
+	@Override
+	public double pair(int i, int j) {
+		if (full)
+			return at(i, j) + at(j, i);
+		return (i < j) ? at(i, j) : at(j, i);
+	}
+
+	@Override
+	public void addRow(int i, double scale, double[] delta) {
+		for (int j = 0; j < size; j++) {
+			if (j != i)
+				delta[j] += scale * pair(i, j);
+		}
+	}
+
+	@Override
+	public double contribution(int i, double[] x) {
+		double sum = at(i, i);
+		for (int j = 0; j < size; j++) {
+			if (j != i && x[j] != 0)
+				sum += x[j] * pair(i, j);
+		}
+		return sum;
+	}
+
+	@Override
+	public double evaluate(double[] x) {
+		double aux, sum = 0;
+		for (int i = 0; i < size; i++) {
+			if (x[i] == 0)
+				continue;
+			aux = x[i] * at(i, i);
+			for (int j = i + 1; j < size; j++) {
+				if (x[j] != 0)
+					aux += x[j] * pair(i, j);
+			}
+			sum += aux;
+		}
+		return sum;
+	}
+
+}
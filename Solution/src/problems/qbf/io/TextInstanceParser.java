@@ -0,0 +1,436 @@
+package problems.qbf.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import problems.qbf.matrix.PackedMatrix;
+
+/**
+ * Parser of the text instance format: the number of variables n followed by
+ * the n(n+1)/2 coefficients a_{ij}, j &ge; i, of the upper triangle, row by
+ * row, all separated by whitespace. Numbers are signed integers or decimals,
+ * optionally with an exponent, and are decoded straight from the bytes of the
+ * file into the packed upper triangle (see {@link PackedMatrix}), without
+ * allocating per number. Malformed
+ * input is reported by an IOException giving the file and line, and a byte
+ * that cannot appear in an instance, e.g. a control or non-ASCII character,
+ * also by its offset in the file.
+ *
+ * The file is read through a channel with a fixed buffer, or, with more than
+ * one thread and a large enough file, mapped into memory and split into
+ * chunks that are parsed in parallel. Each chunk fills a contiguous range of
+ * the packed upper triangle, found by counting the numbers of the previous
+ * chunks.
+ *
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public class TextInstanceParser {
+
+	/**
+	 * the size of the buffer of the sequential parser, in bytes.
+	 */
+	private static final int BUFFER_BYTES = 1 << 20;
+
+	/**
+	 * the smallest file parsed in parallel, in bytes.
+	 */
+	private static final long PARALLEL_MIN_BYTES = 4 << 20;
+
+	/**
+	 * the most significant digits of a number computed from its digits: a
+	 * mantissa of up to 15 digits is below 2^53, so it and 10^k for k up to 22
+	 * are exact doubles and their quotient is rounded only once, as
+	 * {@link Double#parseDouble(String)} does.
+	 */
+	private static final int EXACT_DIGITS = 15;
+
+	/**
+	 * 10^k for k up to 22, all exactly representable as doubles.
+	 */
+	private static final double[] POW10 = new double[23];
+
+	static {
+		POW10[0] = 1;
+		for (int k = 1; k < POW10.length; k++) {
+			POW10[k] = POW10[k - 1] * 10;
+		}
+	}
+
+	private final String filename;
+
+	private int size;
+
+	private double[] upper;
+
+	/**
+	 * Parses a text instance sequentially.
+	 *
+	 * @param filename
+	 *            the instance file.
+	 * @throws IOException
+	 *             if the file cannot be read or is malformed.
+	 */
+	public TextInstanceParser(String filename) throws IOException {
+		this(filename, 1);
+	}
+
+	/**
+	 * Parses a text instance, in parallel if threads is greater than one and
+	 * the file is large enough.
+	 *
+	 * @param filename
+	 *            the instance file.
+	 * @param threads
+	 *            the number of parsing threads.
+	 * @throws IOException
+	 *             if the file cannot be read or is malformed.
+	 */
+	public TextInstanceParser(String filename, int threads) throws IOException {
+		this.filename = filename;
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+			if (threads > 1 && fileSize >= PARALLEL_MIN_BYTES && fileSize <= Integer.MAX_VALUE)
+				parseParallel(channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize), threads);
+			else
+				parseSequential(channel);
+		}
+	}
+
+	/**
+	 * Gives the number of variables of the instance.
+	 *
+	 * @return the number of variables.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Gives the coefficients of the upper triangle of the instance, packed row
+	 * by row, a_{ij} being stored at {@link PackedMatrix#index(int, int, int)}.
+	 *
+	 * @return the packed coefficients.
+	 */
+	public double[] getUpper() {
+		return upper;
+	}
+
+	private void parseSequential(ReadableByteChannel channel) throws IOException {
+
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+		buffer.flip();
+		Cursor cursor = new Cursor(buffer, channel, 1);
+		readSize(cursor);
+
+		for (int k = 0; k < upper.length; k++) {
+			if (!cursor.next())
+				throw cursor.error("expected " + upper.length + " coefficients, found " + k);
+			upper[k] = cursor.value;
+		}
+		if (cursor.next())
+			throw cursor.error("unexpected value after the " + upper.length + " coefficients");
+	}
+
+	private void parseParallel(ByteBuffer data, int threads) throws IOException {
+
+		Cursor header = new Cursor(data.duplicate(), null, 1);
+		readSize(header);
+		int start = header.buffer.position();
+		long headerLines = header.line;
+
+		// Chunk boundaries, moved forward to whitespace so no number is split.
+		int limit = data.limit();
+		int[] bounds = new int[threads + 1];
+		bounds[0] = start;
+		for (int t = 1; t < threads; t++) {
+			int b = Math.max(bounds[t - 1], start + (int) ((long) (limit - start) * t / threads));
+			while (b < limit && !isSpace(data.get(b)))
+				b++;
+			bounds[t] = b;
+		}
+		bounds[threads] = limit;
+
+		// Count the numbers and lines of each chunk.
+		long[] tokens = new long[threads + 1], lines = new long[threads + 1];
+		lines[0] = headerLines;
+		List<Callable<Void>> counts = new ArrayList<Callable<Void>>();
+		for (int t = 0; t < threads; t++) {
+			final int chunk = t;
+			counts.add(() -> {
+				long nTokens = 0, nLines = 0;
+				boolean inToken = false;
+				for (int p = bounds[chunk]; p < bounds[chunk + 1]; p++) {
+					byte c = data.get(p);
+					if (c == '\n')
+						nLines++;
+					boolean space = isSpace(c);
+					if (!space && !inToken)
+						nTokens++;
+					inToken = !space;
+				}
+				tokens[chunk + 1] = nTokens;
+				lines[chunk + 1] = nLines;
+				return null;
+			});
+		}
+		runAll(counts, threads);
+		for (int t = 0; t < threads; t++) {
+			tokens[t + 1] += tokens[t];
+			lines[t + 1] += lines[t];
+		}
+
+		// Parse each chunk into its range of the upper triangle.
+		long total = upper.length;
+		List<Callable<Void>> parses = new ArrayList<Callable<Void>>();
+		for (int t = 0; t < threads; t++) {
+			final int chunk = t;
+			parses.add(() -> {
+				ByteBuffer slice = data.duplicate();
+				slice.limit(bounds[chunk + 1]).position(bounds[chunk]);
+				Cursor cursor = new Cursor(slice, null, lines[chunk]);
+				long k = tokens[chunk];
+				while (cursor.next()) {
+					if (k >= total)
+						throw cursor.error("unexpected value after the " + total + " coefficients");
+					upper[(int) k++] = cursor.value;
+				}
+				return null;
+			});
+		}
+		runAll(parses, threads);
+
+		if (tokens[threads] < total)
+			throw new IOException(filename + ":" + lines[threads] + ": expected " + total + " coefficients, found "
+					+ tokens[threads]);
+	}
+
+	/**
+	 * Reads the number of variables and allocates the upper triangle.
+	 */
+	private void readSize(Cursor cursor) throws IOException {
+		if (!cursor.next())
+			throw cursor.error("missing number of variables");
+		double n = cursor.value;
+		if (n != Math.rint(n) || n < 0)
+			throw cursor.error("invalid number of variables " + n);
+		if (n > PackedMatrix.MAX_SIZE)
+			throw cursor.error("too many variables " + n + ", the upper triangle is limited to n = "
+					+ PackedMatrix.MAX_SIZE);
+		size = (int) n;
+		upper = new double[PackedMatrix.length(size)];
+	}
+
+	/**
+	 * Runs the tasks in a pool of threads, rethrowing the first failure in
+	 * task order, so errors are reported deterministically.
+	 */
+	private static void runAll(List<Callable<Void>> tasks, int threads) throws IOException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			for (Future<Void> future : pool.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while parsing", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static boolean isSpace(int c) {
+		return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+	}
+
+	/**
+	 * Reads the numbers of a buffer, refilled from a channel if there is one,
+	 * keeping track of the current line.
+	 */
+	private class Cursor {
+
+		private final ByteBuffer buffer;
+
+		private final ReadableByteChannel channel;
+
+		/**
+		 * the offset in the file of the start of the buffer, which the
+		 * parallel parser maps whole, so it is only advanced on refills.
+		 */
+		private long base;
+
+		/**
+		 * the current line, and the line where the last number read starts.
+		 */
+		private long line, tokenLine;
+
+		/**
+		 * the last number read.
+		 */
+		private double value;
+
+		/**
+		 * the bytes of the last number read, used when it cannot be decoded
+		 * exactly from its digits and for error messages.
+		 */
+		private byte[] token = new byte[32];
+		private int tokenLength;
+
+		Cursor(ByteBuffer buffer, ReadableByteChannel channel, long line) {
+			this.buffer = buffer;
+			this.channel = channel;
+			this.line = line;
+		}
+
+		/**
+		 * Gives the next byte, as an unsigned value, or -1 at the end of the
+		 * input.
+		 *
+		 * @throws IOException
+		 *             if the byte is neither printable ASCII nor whitespace.
+		 */
+		private int read() throws IOException {
+			if (!buffer.hasRemaining()) {
+				if (channel == null)
+					return -1;
+				base += buffer.limit();
+				buffer.clear();
+				int n;
+				while ((n = channel.read(buffer)) == 0)
+					;
+				buffer.flip();
+				if (n < 0)
+					return -1;
+			}
+			int c = buffer.get() & 0xFF;
+			if (c >= 0x7F || (c < ' ' && !isSpace(c)))
+				throw new IOException(String.format("%s:%d: unexpected byte 0x%02X at offset %d", filename, line, c,
+						base + buffer.position() - 1));
+			return c;
+		}
+
+		/**
+		 * Reads the next number into {@link #value}.
+		 *
+		 * @return false if the input ended before a number.
+		 */
+		boolean next() throws IOException {
+
+			int c = read();
+			while (isSpace(c)) {
+				if (c == '\n')
+					line++;
+				c = read();
+			}
+			tokenLine = line;
+			tokenLength = 0;
+			if (c < 0)
+				return false;
+
+			boolean negative = false, exact = true;
+			long mantissa = 0;
+			int digits = 0, significant = 0, scale = 0;
+
+			if (c == '-' || c == '+') {
+				negative = (c == '-');
+				c = append(c);
+			}
+			// At most EXACT_DIGITS significant digits are accumulated, so the
+			// mantissa is an exact double; longer numbers are parsed from
+			// their text.
+			while (c >= '0' && c <= '9') {
+				if (significant < EXACT_DIGITS)
+					mantissa = mantissa * 10 + (c - '0');
+				else
+					exact = false;
+				if (mantissa != 0)
+					significant++;
+				digits++;
+				c = append(c);
+			}
+			if (c == '.') {
+				c = append(c);
+				while (c >= '0' && c <= '9') {
+					if (significant < EXACT_DIGITS) {
+						mantissa = mantissa * 10 + (c - '0');
+						scale++;
+					} else
+						exact = false;
+					if (mantissa != 0)
+						significant++;
+					digits++;
+					c = append(c);
+				}
+			}
+			if (digits == 0)
+				throw error("malformed number '" + text(c) + "'");
+			if (c == 'e' || c == 'E') {
+				exact = false;
+				c = append(c);
+				if (c == '-' || c == '+')
+					c = append(c);
+				if (c < '0' || c > '9')
+					throw error("malformed number '" + text(c) + "'");
+				while (c >= '0' && c <= '9')
+					c = append(c);
+			}
+			if (c >= 0 && !isSpace(c))
+				throw error("malformed number '" + text(c) + "'");
+			if (c == '\n')
+				line++;
+
+			if (exact && scale < POW10.length) {
+				value = (scale == 0) ? mantissa : mantissa / POW10[scale];
+				if (negative)
+					value = -value;
+			} else {
+				value = Double.parseDouble(new String(token, 0, tokenLength, StandardCharsets.US_ASCII));
+			}
+			return true;
+		}
+
+		/**
+		 * Appends a byte to the current token and reads the next one.
+		 */
+		private int append(int c) throws IOException {
+			if (tokenLength == token.length)
+				token = Arrays.copyOf(token, 2 * tokenLength);
+			token[tokenLength++] = (byte) c;
+			return read();
+		}
+
+		/**
+		 * Gives the current token followed by the offending byte and the rest
+		 * of the token, for error messages.
+		 */
+		private String text(int c) throws IOException {
+			StringBuilder text = new StringBuilder(new String(token, 0, tokenLength, StandardCharsets.US_ASCII));
+			while (c >= 0 && !isSpace(c) && text.length() < 40) {
+				text.append((char) c);
+				c = read();
+			}
+			return text.toString();
+		}
+
+		IOException error(String message) {
+			return new IOException(filename + ":" + tokenLine + ": " + message);
+		}
+	}
+
+}
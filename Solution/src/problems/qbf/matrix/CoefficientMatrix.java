@@ -0,0 +1,284 @@
+package problems.qbf.matrix;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * The matrix A of coefficients of a QBF f(x) = x'.A.x, seen through the
+ * operations the evaluators need. Since f only depends on a_{ij} + a_{ji} for
+ * i != j, implementations are free to fold the matrix into any equivalent
+ * storage.
+ * 
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public interface CoefficientMatrix {
+
+	/**
+	 * the highest density of nonzero interactions for which the AUTO layout
+	 * picks the SPARSE one. Measured with the LayoutBenchmark of the bench
+	 * module for 1000 and 2000 variables: up to this density, SPARSE is as
+	 * fast as SYMMETRIC or faster on a row of exchanges and several times
+	 * faster on insertions and removals; from 0.4 on, the exchanges are
+	 * slower.
+	 */
+	public static final double SPARSE_DENSITY = 0.1;
+
+	/**
+	 * the smallest number of variables for which the VECTOR layout uses the
+	 * Vector API, below it the row scans are too short to pay off.
+	 */
+	public static final int VECTOR_MIN_SIZE = 1000;
+
+	/**
+	 * Storage layouts of the coefficients, see {@link #of(double[], int, Layout)}.
+	 */
+	public enum Layout {
+		/**
+		 * the n*n symmetrized matrix, row-major, see {@link SymmetricMatrix}.
+		 * It is the fastest layout. Integer coefficients are stored in the
+		 * narrowest integer type that holds them.
+		 */
+		SYMMETRIC,
+		/**
+		 * the n(n+1)/2 coefficients of the upper triangle, row by row, see
+		 * {@link PackedMatrix}. It takes half the memory.
+		 */
+		PACKED,
+		/**
+		 * the nonzero interactions in compressed sparse rows, see
+		 * {@link SparseMatrix}. It is the fastest layout for sparse instances.
+		 */
+		SPARSE,
+		/**
+		 * SPARSE if the density of nonzero interactions is at most
+		 * {@link CoefficientMatrix#SPARSE_DENSITY}, otherwise SYMMETRIC, or
+		 * PACKED if n exceeds {@link SymmetricMatrix#MAX_SIZE}.
+		 */
+		AUTO,
+		/**
+		 * the n*n symmetrized matrix in doubles, scanned with the SIMD kernels
+		 * of the Vector API for {@link CoefficientMatrix#VECTOR_MIN_SIZE} or
+		 * more variables. It falls back to SYMMETRIC for smaller instances,
+		 * and, with a warning on the standard error, when the
+		 * jdk.incubator.vector module or the kernel class is absent.
+		 */
+		VECTOR,
+		/**
+		 * the coefficients read in place, outside the Java heap, from a
+		 * binary instance of UPPER or FULL layout mapped as a single segment
+		 * through the Foreign Memory API of JDK 22 or later, see
+		 * problems.qbf.io.BinaryInstance#offHeapMatrix(), for instances too
+		 * large for the garbage collector. It falls back, with a warning on
+		 * the standard error, to MAPPED when the API or the class is absent.
+		 * Other instances are rejected rather than built in the heap first,
+		 * so {@link CoefficientMatrix#of(double[], int, Layout)} does not
+		 * accept it.
+		 */
+		OFFHEAP,
+		/**
+		 * the coefficients read in place from a memory-mapped binary instance
+		 * of UPPER or FULL layout, see problems.qbf.io.MappedMatrix, so
+		 * nothing is copied into the heap. Other instances, which cannot be
+		 * read in place, are stored as PACKED.
+		 */
+		MAPPED
+	}
+
+	/**
+	 * Creates a matrix with the given layout. With the SYMMETRIC layout, if
+	 * every coefficient is an integer, the matrix is specialized to byte,
+	 * short or int storage with exact long accumulation.
+	 * 
+	 * @param upper
+	 *            the coefficients of the upper triangle, packed row by row as
+	 *            described in {@link PackedMatrix#index(int, int, int)}, with
+	 *            a_{ji} already added to a_{ij} for i &lt; j.
+	 * @param size
+	 *            the number of variables.
+	 * @param layout
+	 *            the storage layout.
+	 * @return the matrix.
+	 * @throws IllegalArgumentException
+	 *             if the layout is OFFHEAP, which only reads binary instances
+	 *             in place, or if the layout cannot store the instance.
+	 */
+	public static CoefficientMatrix of(double[] upper, int size, Layout layout) {
+		switch (layout) {
+		case AUTO:
+			if (SparseMatrix.density(upper, size) <= SPARSE_DENSITY)
+				return new SparseMatrix(upper, size);
+			if (size > SymmetricMatrix.MAX_SIZE)
+				return new PackedMatrix(upper, size);
+			return of(upper, size, Layout.SYMMETRIC);
+		case SPARSE:
+			return new SparseMatrix(upper, size);
+		case VECTOR:
+			if (size >= VECTOR_MIN_SIZE) {
+				CoefficientMatrix matrix = load("problems.qbf.matrix.VectorMatrix",
+						"java --add-modules jdk.incubator.vector", upper, size);
+				if (matrix != null)
+					return matrix;
+				System.err.println("warning: falling back from the VECTOR to the SYMMETRIC layout");
+			}
+			return of(upper, size, Layout.SYMMETRIC);
+		case OFFHEAP:
+			throw new IllegalArgumentException("the OFFHEAP layout only reads binary instances of UPPER or FULL layout");
+		case SYMMETRIC:
+			int bits = integerBits(upper);
+			if (bits != 0)
+				return IntegerSymmetricMatrix.of(upper, size, bits);
+			return new SymmetricMatrix(upper, size);
+		default:
+			return new PackedMatrix(upper, size);
+		}
+	}
+
+	/**
+	 * Creates a matrix whose class is loaded by reflection, so the other
+	 * sources do not depend on the API it needs: VectorMatrix is compiled
+	 * from src-vector with --add-modules jdk.incubator.vector, see pom.xml.
+	 * If the matrix cannot be created, the reason is reported on the standard
+	 * error, so a layout falling back to another one is never silent.
+	 * 
+	 * @param className
+	 *            the name of the class.
+	 * @param requirement
+	 *            what the class needs at run time, for the warning.
+	 * @param upper
+	 *            the coefficients of the upper triangle.
+	 * @param size
+	 *            the number of variables.
+	 * @return the matrix, or null if the class or the APIs it needs are not
+	 *         available.
+	 * @throws IllegalArgumentException
+	 *             if the class rejects the instance, e.g. for its size.
+	 */
+	private static CoefficientMatrix load(String className, String requirement, double[] upper, int size) {
+		Throwable failure;
+		try {
+			Class<?> type = Class.forName(className);
+			return (CoefficientMatrix) type.getConstructor(double[].class, int.class).newInstance(upper, size);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			failure = e.getCause();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			failure = e;
+		}
+		System.err.println("warning: " + className + " is not available (" + failure + "); it needs " + requirement);
+		return null;
+	}
+
+	/**
+	 * Gives the number of bits of the narrowest integer type holding every
+	 * given value.
+	 * 
+	 * @param values
+	 *            the values.
+	 * @return 8, 16 or 32, or 0 if some value is not an int.
+	 */
+	private static int integerBits(double[] values) {
+		double min = 0, max = 0;
+		for (double v : values) {
+			if (v != Math.rint(v))
+				return 0;
+			if (v < min)
+				min = v;
+			if (v > max)
+				max = v;
+		}
+		if (min >= Byte.MIN_VALUE && max <= Byte.MAX_VALUE)
+			return Byte.SIZE;
+		if (min >= Short.MIN_VALUE && max <= Short.MAX_VALUE)
+			return Short.SIZE;
+		if (min >= Integer.MIN_VALUE && max <= Integer.MAX_VALUE)
+			return Integer.SIZE;
+		return 0;
+	}
+
+	/**
+	 * Gives the number of variables.
+	 * 
+	 * @return the dimension of the matrix.
+	 */
+	public abstract int size();
+
+	/**
+	 * Gives the diagonal coefficient a_{ii}.
+	 * 
+	 * @param i
+	 *            the variable.
+	 * @return a_{ii}.
+	 */
+	public abstract double diagonal(int i);
+
+	/**
+	 * Gives the interaction between two distinct variables, a_{ij} + a_{ji}.
+	 * 
+	 * @param i
+	 *            a variable.
+	 * @param j
+	 *            another variable.
+	 * @return a_{ij} + a_{ji}.
+	 */
+	public abstract double pair(int i, int j);
+
+	/**
+	 * Gives the interactions of a variable with several others, as
+	 * {@link #pair(int, int)} does for each, so a layout can amortize the
+	 * lookups of a whole row of the exchange neighborhood.
+	 * 
+	 * @param i
+	 *            the variable.
+	 * @param js
+	 *            the other variables; the value given for i itself is
+	 *            unspecified.
+	 * @param count
+	 *            the number of positions of js to be read.
+	 * @param pairs
+	 *            the array receiving a_{ij} + a_{ji} for each j of js.
+	 * @param scratch
+	 *            a work array of {@link #size()} positions, all zero, which
+	 *            is left zeroed on return. It belongs to the caller, so a
+	 *            matrix can be shared by threads each with its own array.
+	 */
+	public default void pairs(int i, int[] js, int count, double[] pairs, double[] scratch) {
+		for (int k = 0; k < count; k++) {
+			pairs[k] = pair(i, js[k]);
+		}
+	}
+
+	/**
+	 * Adds the interactions of a variable with every other one, scaled, to an
+	 * array: delta[j] += scale * (a_{ij} + a_{ji}) for j != i.
+	 * 
+	 * @param i
+	 *            the variable.
+	 * @param scale
+	 *            the factor applied to the interactions.
+	 * @param delta
+	 *            the array being updated.
+	 */
+	public abstract void addRow(int i, double scale, double[] delta);
+
+	/**
+	 * Gives the contribution of a variable to an assignment of the variables,
+	 * a_{ii} + \sum{j != i}{x_j*(a_{ij}+a_{ji})}.
+	 * 
+	 * @param i
+	 *            the variable.
+	 * @param x
+	 *            the values of the variables, zero or one.
+	 * @return the contribution of i.
+	 */
+	public abstract double contribution(int i, double[] x);
+
+	/**
+	 * Evaluates x'.A.x for binary values of the variables.
+	 * 
+	 * @param x
+	 *            the values of the variables, zero or one.
+	 * @return the value of the QBF.
+	 */
+	public abstract double evaluate(double[] x);
+
+}
@@ -0,0 +1,216 @@
+package problems.qbf.matrix;
+
+/**
+ * {@link SymmetricMatrix} for integer coefficients, stored in the narrowest
+ * of byte, short or int that holds every symmetrized value. A cache line then
+ * holds two to eight times as many coefficients as with doubles, and
+ * contributions and evaluations are accumulated exactly in a long.
+ *
+ * The scans are written once against {@link #get(int)}, which each width
+ * implements over its own array. A process usually solves instances of a
+ * single width, so the call is monomorphic and inlined by the JIT.
+ *
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public abstract class IntegerSymmetricMatrix implements CoefficientMatrix {
+
+	protected final int size;
+
+	/**
+	 * Creates the matrix of the narrowest width holding the given values.
+	 *
+	 * @param upper
+	 *            the coefficients of the upper triangle, see
+	 *            {@link CoefficientMatrix#of(double[], int, Layout)}, all
+	 *            integers.
+	 * @param size
+	 *            the number of variables.
+	 * @param bits
+	 *            the width of the coefficients: {@link Byte#SIZE},
+	 *            {@link Short#SIZE} or {@link Integer#SIZE}.
+	 * @return the matrix.
+	 * @throws IllegalArgumentException
+	 *             if the width is not one of the above, or if size is greater
+	 *             than {@link SymmetricMatrix#MAX_SIZE}.
+	 */
+	public static IntegerSymmetricMatrix of(double[] upper, int size, int bits) {
+		IntegerSymmetricMatrix matrix;
+		switch (bits) {
+		case Byte.SIZE:
+			matrix = new Bytes(size);
+			break;
+		case Short.SIZE:
+			matrix = new Shorts(size);
+			break;
+		case Integer.SIZE:
+			matrix = new Ints(size);
+			break;
+		default:
+			throw new IllegalArgumentException("no integer matrix of " + bits + " bits");
+		}
+		for (int i = 0, k = 0; i < size; i++) {
+			for (int j = i; j < size; j++, k++) {
+				matrix.set(i * size + j, (int) upper[k]);
+				matrix.set(j * size + i, (int) upper[k]);
+			}
+		}
+		return matrix;
+	}
+
+	private IntegerSymmetricMatrix(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * Gives the k-th coefficient of the row-major n*n matrix.
+	 *
+	 * @param k
+	 *            the position of the coefficient.
+	 * @return the coefficient.
+	 */
+	protected abstract int get(int k);
+
+	/**
+	 * Stores the k-th coefficient of the row-major n*n matrix.
+	 *
+	 * @param k
+	 *            the position of the coefficient.
+	 * @param value
+	 *            the coefficient, in the range of the width.
+	 */
+	protected abstract void set(int k, int value);
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public double diagonal(int i) {
+		return get(i * size + i);
+	}
+
+	@Override
+	public double pair(int i, int j) {
+		return get(i * size + j);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Unlike the contributions, the row is accumulated in the doubles of
+	 * delta, which is exact: the evaluators only apply scales of 1 and -1,
+	 * and every partial sum of int coefficients over n &le;
+	 * {@link SymmetricMatrix#MAX_SIZE} variables is an integer below 2^53 in
+	 * magnitude, which a double represents exactly.
+	 */
+	@Override
+	public void addRow(int i, double scale, double[] delta) {
+		int row = i * size;
+		for (int j = 0; j < i; j++) {
+			delta[j] += scale * get(row + j);
+		}
+		for (int j = i + 1; j < size; j++) {
+			delta[j] += scale * get(row + j);
+		}
+	}
+
+	@Override
+	public double contribution(int i, double[] x) {
+		int row = i * size;
+		long sum = get(row + i);
+		for (int j = 0; j < i; j++) {
+			if (x[j] != 0)
+				sum += get(row + j);
+		}
+		for (int j = i + 1; j < size; j++) {
+			if (x[j] != 0)
+				sum += get(row + j);
+		}
+		return sum;
+	}
+
+	@Override
+	public double evaluate(double[] x) {
+		long sum = 0;
+		for (int i = 0; i < size; i++) {
+			if (x[i] == 0)
+				continue;
+			for (int j = i, row = i * size; j < size; j++) {
+				if (x[j] != 0)
+					sum += get(row + j);
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Coefficients in the range of a byte.
+	 */
+	private static final class Bytes extends IntegerSymmetricMatrix {
+
+		private final byte[] Q;
+
+		Bytes(int size) {
+			super(size);
+			Q = new byte[SymmetricMatrix.length(size, "SYMMETRIC")];
+		}
+
+		@Override
+		protected int get(int k) {
+			return Q[k];
+		}
+
+		@Override
+		protected void set(int k, int value) {
+			Q[k] = (byte) value;
+		}
+	}
+
+	/**
+	 * Coefficients in the range of a short.
+	 */
+	private static final class Shorts extends IntegerSymmetricMatrix {
+
+		private final short[] Q;
+
+		Shorts(int size) {
+			super(size);
+			Q = new short[SymmetricMatrix.length(size, "SYMMETRIC")];
+		}
+
+		@Override
+		protected int get(int k) {
+			return Q[k];
+		}
+
+		@Override
+		protected void set(int k, int value) {
+			Q[k] = (short) value;
+		}
+	}
+
+	/**
+	 * Coefficients in the range of an int.
+	 */
+	private static final class Ints extends IntegerSymmetricMatrix {
+
+		private final int[] Q;
+
+		Ints(int size) {
+			super(size);
+			Q = new int[SymmetricMatrix.length(size, "SYMMETRIC")];
+		}
+
+		@Override
+		protected int get(int k) {
+			return Q[k];
+		}
+
+		@Override
+		protected void set(int k, int value) {
+			Q[k] = value;
+		}
+	}
+
+}
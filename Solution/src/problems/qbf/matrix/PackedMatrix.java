@@ -0,0 +1,143 @@
+package problems.qbf.matrix;
+
+/**
+ * Coefficient matrix stored as the n(n+1)/2 coefficients of its upper
+ * triangle, row by row, which takes half the memory of the n*n matrix. The
+ * interaction a_{ij} + a_{ji} of i &lt; j is stored at the position of a_{ij}, so
+ * the interactions of a variable are the tail of its row followed by the
+ * head of its column.
+ * 
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public class PackedMatrix implements CoefficientMatrix {
+
+	/**
+	 * the largest number of variables whose n(n+1)/2 coefficients fit in an
+	 * array, so every position of {@link #index(int, int, int)} is an int.
+	 */
+	public static final int MAX_SIZE = (int) ((Math.sqrt(8.0 * SymmetricMatrix.MAX_LENGTH + 1) - 1) / 2);
+
+	private final int size;
+
+	/**
+	 * the packed upper triangle.
+	 */
+	private final double[] U;
+
+	/**
+	 * the position of a_{ij}, j &ge; i, in {@link #U} is rowStart[i] + j.
+	 */
+	private final int[] rowStart;
+
+	/**
+	 * Creates the matrix from the packed upper triangle, which is kept
+	 * without copying.
+	 * 
+	 * @param upper
+	 *            the coefficients of the upper triangle, see
+	 *            {@link CoefficientMatrix#of(double[], int, Layout)}.
+	 * @param size
+	 *            the number of variables.
+	 * @throws IllegalArgumentException
+	 *             if size is greater than {@link #MAX_SIZE}.
+	 */
+	public PackedMatrix(double[] upper, int size) {
+		length(size);
+		this.size = size;
+		this.U = upper;
+		this.rowStart = new int[size];
+		for (int i = 0; i < size; i++) {
+			rowStart[i] = index(i, 0, size);
+		}
+	}
+
+	/**
+	 * Gives the position of a_{ij}, j &ge; i, among the coefficients of the
+	 * upper triangle packed row by row. Row i starts after the n + (n-1) + ...
+	 * + (n-i+1) coefficients of the previous rows.
+	 * 
+	 * @param i
+	 *            the row.
+	 * @param j
+	 *            the column.
+	 * @param size
+	 *            the number of variables.
+	 * @return the position of a_{ij}.
+	 */
+	public static int index(int i, int j, int size) {
+		long start = (long) i * size - (long) i * (i - 1) / 2;
+		return (int) (start + j - i);
+	}
+
+	/**
+	 * Gives the number of coefficients of the upper triangle, checking that
+	 * they fit in an array.
+	 * 
+	 * @param size
+	 *            the number of variables.
+	 * @return n(n+1)/2.
+	 * @throws IllegalArgumentException
+	 *             if n(n+1)/2 exceeds {@link SymmetricMatrix#MAX_LENGTH}, i.e.,
+	 *             if size is greater than {@link #MAX_SIZE}.
+	 */
+	public static int length(int size) {
+		long length = (long) size * (size + 1) / 2;
+		if (length > SymmetricMatrix.MAX_LENGTH)
+			throw new IllegalArgumentException("the upper triangle of n = " + size + " has " + length
+					+ " coefficients, more than the largest array");
+		return (int) length;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public double diagonal(int i) {
+		return U[rowStart[i] + i];
+	}
+
+	@Override
+	public double pair(int i, int j) {
+		return (i < j) ? U[rowStart[i] + j] : U[rowStart[j] + i];
+	}
+
+	@Override
+	public void addRow(int i, double scale, double[] delta) {
+		for (int j = 0; j < i; j++) {
+			delta[j] += scale * U[rowStart[j] + i];
+		}
+		for (int j = i + 1, row = rowStart[i]; j < size; j++) {
+			delta[j] += scale * U[row + j];
+		}
+	}
+
+	@Override
+	public double contribution(int i, double[] x) {
+		double sum = U[rowStart[i] + i];
+		for (int j = 0; j < i; j++) {
+			sum += x[j] * U[rowStart[j] + i];
+		}
+		for (int j = i + 1, row = rowStart[i]; j < size; j++) {
+			sum += x[j] * U[row + j];
+		}
+		return sum;
+	}
+
+	@Override
+	public double evaluate(double[] x) {
+		double aux, sum = 0;
+		for (int i = 0; i < size; i++) {
+			if (x[i] == 0)
+				continue;
+			aux = 0;
+			for (int j = i, row = rowStart[i]; j < size; j++) {
+				aux += x[j] * U[row + j];
+			}
+			sum += aux;
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,187 @@
+package problems.qbf.matrix;
+
+/**
+ * Coefficient matrix stored as the nonzero interactions of the symmetrized
+ * matrix Q, with q_{ij} = a_{ij} + a_{ji} for i != j, in compressed sparse
+ * row (CSR) form: row i holds the columns and values of its nonzeros, sorted
+ * by column, both below and above the diagonal, and the diagonal a_{ii} is
+ * kept apart. Updating or computing a contribution walks only the nonzeros of
+ * a row, and a full evaluation only those above the diagonal, so the cost
+ * grows with the number of nonzeros instead of n*n.
+ *
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public class SparseMatrix implements CoefficientMatrix {
+
+	private final int size;
+
+	private final double[] diagonal;
+
+	/**
+	 * the nonzeros of row i are at positions rowStart[i] to rowStart[i+1]-1
+	 * of {@link #column} and {@link #value}, those with column greater than i
+	 * starting at upperStart[i].
+	 */
+	private final int[] rowStart, upperStart;
+
+	private final int[] column;
+
+	private final double[] value;
+
+	/**
+	 * Creates the matrix from the packed upper triangle.
+	 *
+	 * @param upper
+	 *            the coefficients of the upper triangle, see
+	 *            {@link CoefficientMatrix#of(double[], int, Layout)}.
+	 * @param size
+	 *            the number of variables.
+	 */
+	public SparseMatrix(double[] upper, int size) {
+		this.size = size;
+		this.diagonal = new double[size];
+		this.rowStart = new int[size + 1];
+		this.upperStart = new int[size];
+
+		// Count the nonzeros of each row, both halves.
+		long nonzeros = 0;
+		for (int i = 0, k = 0; i < size; i++) {
+			diagonal[i] = upper[k++];
+			for (int j = i + 1; j < size; j++, k++) {
+				if (upper[k] != 0) {
+					rowStart[i + 1]++;
+					rowStart[j + 1]++;
+					nonzeros += 2;
+				}
+			}
+		}
+		if (nonzeros > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("too many nonzeros for a sparse matrix: " + nonzeros);
+		for (int i = 0; i < size; i++) {
+			rowStart[i + 1] += rowStart[i];
+		}
+		this.column = new int[(int) nonzeros];
+		this.value = new double[(int) nonzeros];
+
+		// Rows are filled in increasing order of i, so the entries below the
+		// diagonal of a row, coming from earlier rows, precede those above it
+		// and every row ends up sorted by column.
+		int[] next = new int[size];
+		System.arraycopy(rowStart, 0, next, 0, size);
+		for (int i = 0, k = 0; i < size; i++) {
+			k++;
+			upperStart[i] = next[i];
+			for (int j = i + 1; j < size; j++, k++) {
+				if (upper[k] != 0) {
+					column[next[i]] = j;
+					value[next[i]++] = upper[k];
+					column[next[j]] = i;
+					value[next[j]++] = upper[k];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gives the fraction of nonzero interactions of the packed upper triangle,
+	 * the diagonal excluded.
+	 *
+	 * @param upper
+	 *            the coefficients of the upper triangle, see
+	 *            {@link CoefficientMatrix#of(double[], int, Layout)}.
+	 * @param size
+	 *            the number of variables.
+	 * @return the density, in [0,1].
+	 */
+	public static double density(double[] upper, int size) {
+		if (size < 2)
+			return 0;
+		long nonzeros = 0;
+		for (int i = 0, k = 0; i < size; i++) {
+			k++;
+			for (int j = i + 1; j < size; j++, k++) {
+				if (upper[k] != 0)
+					nonzeros++;
+			}
+		}
+		return nonzeros / ((double) size * (size - 1) / 2);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public double diagonal(int i) {
+		return diagonal[i];
+	}
+
+	@Override
+	public double pair(int i, int j) {
+		int lo = rowStart[i], hi = rowStart[i + 1] - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (column[mid] < j)
+				lo = mid + 1;
+			else if (column[mid] > j)
+				hi = mid - 1;
+			else
+				return value[mid];
+		}
+		return 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The row of i is scattered into the scratch array, so each interaction is
+	 * then read in O(1) instead of by a binary search, and the scratch array is
+	 * cleared by walking the row again: O(nonzeros of i + count) in all.
+	 */
+	@Override
+	public void pairs(int i, int[] js, int count, double[] pairs, double[] scratch) {
+		int start = rowStart[i], end = rowStart[i + 1];
+		for (int k = start; k < end; k++) {
+			scratch[column[k]] = value[k];
+		}
+		for (int k = 0; k < count; k++) {
+			pairs[k] = scratch[js[k]];
+		}
+		for (int k = start; k < end; k++) {
+			scratch[column[k]] = 0;
+		}
+	}
+
+	@Override
+	public void addRow(int i, double scale, double[] delta) {
+		for (int k = rowStart[i], end = rowStart[i + 1]; k < end; k++) {
+			delta[column[k]] += scale * value[k];
+		}
+	}
+
+	@Override
+	public double contribution(int i, double[] x) {
+		double sum = diagonal[i];
+		for (int k = rowStart[i], end = rowStart[i + 1]; k < end; k++) {
+			sum += x[column[k]] * value[k];
+		}
+		return sum;
+	}
+
+	@Override
+	public double evaluate(double[] x) {
+		double aux, sum = 0;
+		for (int i = 0; i < size; i++) {
+			if (x[i] == 0)
+				continue;
+			aux = x[i] * diagonal[i];
+			for (int k = upperStart[i], end = rowStart[i + 1]; k < end; k++) {
+				aux += x[column[k]] * value[k];
+			}
+			sum += aux;
+		}
+		return sum;
+	}
+
+}
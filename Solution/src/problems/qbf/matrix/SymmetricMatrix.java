@@ -0,0 +1,124 @@
+package problems.qbf.matrix;
+
+/**
+ * Coefficient matrix stored as the symmetrized matrix Q, with q_{ij} = a_{ij}
+ * + a_{ji} for i != j and q_{ii} = a_{ii}, in a single row-major n*n array.
+ * The interactions of a variable are then its row of Q, so updating the
+ * contributions or computing one is a sequential scan of a contiguous range,
+ * at the cost of the n*n array, which limits n to {@link #MAX_SIZE}.
+ * 
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public class SymmetricMatrix implements CoefficientMatrix {
+
+	/**
+	 * the largest array length accepted by the common JVMs.
+	 */
+	static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+
+	/**
+	 * the largest number of variables whose n*n matrix fits in an array.
+	 */
+	public static final int MAX_SIZE = (int) Math.sqrt(MAX_LENGTH);
+
+	private final int size;
+
+	private final double[] Q;
+
+	/**
+	 * Creates the matrix from the packed upper triangle.
+	 * 
+	 * @param upper
+	 *            the coefficients of the upper triangle, see
+	 *            {@link CoefficientMatrix#of(double[], int, Layout)}.
+	 * @param size
+	 *            the number of variables.
+	 * @throws IllegalArgumentException
+	 *             if size is greater than {@link #MAX_SIZE}.
+	 */
+	public SymmetricMatrix(double[] upper, int size) {
+		this.size = size;
+		this.Q = new double[length(size, "SYMMETRIC")];
+		for (int i = 0, k = 0; i < size; i++) {
+			for (int j = i; j < size; j++, k++) {
+				Q[i * size + j] = upper[k];
+				Q[j * size + i] = upper[k];
+			}
+		}
+	}
+
+	/**
+	 * Gives the length of the n*n array of a layout, checking that it fits
+	 * in an array, since size*size overflows an int from n = 46341 on.
+	 * 
+	 * @param size
+	 *            the number of variables.
+	 * @param layout
+	 *            the name of the layout, for the error message.
+	 * @return n*n.
+	 * @throws IllegalArgumentException
+	 *             if n*n exceeds {@link #MAX_LENGTH}.
+	 */
+	static int length(int size, String layout) {
+		long length = (long) size * size;
+		if (length > MAX_LENGTH)
+			throw new IllegalArgumentException("the " + layout + " layout cannot store n = " + size + ": its " + length
+					+ " coefficients exceed the largest array, use the PACKED or SPARSE layout");
+		return (int) length;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public double diagonal(int i) {
+		return Q[i * size + i];
+	}
+
+	@Override
+	public double pair(int i, int j) {
+		return Q[i * size + j];
+	}
+
+	@Override
+	public void addRow(int i, double scale, double[] delta) {
+		int row = i * size;
+		for (int j = 0; j < i; j++) {
+			delta[j] += scale * Q[row + j];
+		}
+		for (int j = i + 1; j < size; j++) {
+			delta[j] += scale * Q[row + j];
+		}
+	}
+
+	@Override
+	public double contribution(int i, double[] x) {
+		int row = i * size;
+		double sum = Q[row + i];
+		for (int j = 0; j < i; j++) {
+			sum += x[j] * Q[row + j];
+		}
+		for (int j = i + 1; j < size; j++) {
+			sum += x[j] * Q[row + j];
+		}
+		return sum;
+	}
+
+	@Override
+	public double evaluate(double[] x) {
+		double aux, sum = 0;
+		for (int i = 0; i < size; i++) {
+			if (x[i] == 0)
+				continue;
+			aux = 0;
+			for (int j = i, row = i * size; j < size; j++) {
+				aux += x[j] * Q[row + j];
+			}
+			sum += aux;
+		}
+		return sum;
+	}
+
+}
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 
 import metaheuristics.grasp.AbstractGRASP;
 import problems.qbf.QBF_Inverse;
+import solutions.BinarySolution;
 import solutions.Solution;
 
 
@@ -38,6 +39,27 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
 		super(new QBF_Inverse(filename), alpha, iterations, AbstractGRASP.Construction.DEF, 0);
 	}
 
+	/**
+	 * Copy constructor for the GRASP_QBF class, see
+	 * {@link AbstractGRASP#AbstractGRASP(AbstractGRASP)}.
+	 * 
+	 * @param grasp
+	 *            The solver being copied.
+	 */
+	private GRASP_QBF(GRASP_QBF grasp) {
+		super(grasp);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see grasp.abstracts.AbstractGRASP#copy()
+	 */
+	@Override
+	protected GRASP_QBF copy() {
+		return new GRASP_QBF(this);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -87,11 +109,12 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
 	 * 
 	 * This createEmptySol instantiates an empty solution and it attributes a
 	 * zero cost, since it is known that a QBFPT solution with all variables set
-	 * to zero has also zero cost.
+	 * to zero has also zero cost. The solution is a {@link BinarySolution},
+	 * since elements are the indices of the QBFPT variables.
 	 */
 	@Override
 	public Solution<Integer> createEmptySol() {
-		Solution<Integer> sol = new Solution<Integer>();
+		Solution<Integer> sol = new BinarySolution(ObjFunction.getDomainSize());
 		sol.cost = 0.0;
 		return sol;
 	}
@@ -107,14 +130,23 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
 
 		Double minDeltaCost;
 		Integer bestCandIn = null, bestCandOut = null;
+		double deltaCost;
+		double[] costs = new double[ObjFunction.getDomainSize()];
+		int k;
 
 		do {
 			minDeltaCost = Double.POSITIVE_INFINITY;
 			updateCL();
+
+			// Stop at the current solution if the deadline was reached.
+			if (deadlineReached(CL.size() + currentSol.size()))
+				return null;
 				
 			// Evaluate insertions
+			session.evaluateInsertionCosts(CL, costs);
+			k = 0;
 			for (Integer candIn : CL) {
-				double deltaCost = ObjFunction.evaluateInsertionCost(candIn, currentSol);
+				deltaCost = costs[k++];
 				if (deltaCost < minDeltaCost) {
 					minDeltaCost = deltaCost;
 					bestCandIn = candIn;
@@ -122,18 +154,24 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
 				}
 			}
 			// Evaluate removals
+			session.evaluateRemovalCosts(currentSol, costs);
+			k = 0;
 			for (Integer candOut : currentSol) {
-				double deltaCost = ObjFunction.evaluateRemovalCost(candOut, currentSol);
+				deltaCost = costs[k++];
 				if (deltaCost < minDeltaCost) {
 					minDeltaCost = deltaCost;
 					bestCandIn = null;
 					bestCandOut = candOut;
 				}
 			}
-			// Evaluate exchanges
+			// Evaluate exchanges, one row of the exchange matrix at a time
 			for (Integer candIn : CL) {
+				if (deadlineReached(currentSol.size()))
+					return null;
+				session.evaluateExchangeCosts(candIn, currentSol, costs);
+				k = 0;
 				for (Integer candOut : currentSol) {
-					double deltaCost = ObjFunction.evaluateExchangeCost(candIn, candOut, currentSol);
+					deltaCost = costs[k++];
 					if (deltaCost < minDeltaCost) {
 						minDeltaCost = deltaCost;
 						bestCandIn = candIn;
@@ -143,15 +181,13 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
 			}
 			// Implement the best move, if it reduces the solution cost.
 			if (minDeltaCost < -Double.MIN_VALUE) {
-				if (bestCandOut != null) {
-					currentSol.remove(bestCandOut);
-					CL.add(bestCandOut);
-				}
-				if (bestCandIn != null) {
-					currentSol.add(bestCandIn);
-					CL.remove(bestCandIn);
+				if (bestCandOut != null && bestCandIn != null) {
+					exchangeCandidates(bestCandIn, bestCandOut);
+				} else if (bestCandOut != null) {
+					removeCandidate(bestCandOut);
+				} else {
+					insertCandidate(bestCandIn);
 				}
-				ObjFunction.evaluate(currentSol);
 			}
 		} while (minDeltaCost < -Double.MIN_VALUE);
 
@@ -1,7 +1,6 @@
 package problems.qbfpt;
 
-import problems.Evaluator;
-import solutions.Solution;
+import problems.qbf.QBF;
 
 import java.io.*;
 import java.util.ArrayList;
@@ -21,7 +20,7 @@ import java.util.Arrays;
  * @author ccavellucci, fusberti, gabrielsantosrv, vferrari
  *
  */
-public class QBFPT implements Evaluator<Integer> {
+public class QBFPT extends QBF {
 	
 	/**
 	 * PI values for triple generation. 
@@ -31,27 +30,26 @@ public class QBFPT implements Evaluator<Integer> {
 	private static final int HPI1 = 193;
 	private static final int HPI2 = 1093;
 
-	/**
-	 * Dimension of the domain.
-	 */
-	public final Integer size;
+	private ArrayList<int[]> triples;
 
 	/**
-	 * The array of numbers representing the domain.
+	 * Incidence index of the forbidden triples: for each element, the indices
+	 * (in {@link #triples}) of the triples containing it.
 	 */
-	public final Double[] variables;
+	private final int[][] elementTriples;
 
 	/**
-	 * The matrix A of coefficients for the QBFPT f(x) = x'.A.x
+	 * For each forbidden triple, how many of its members are currently set to
+	 * one in {@link #variables}.
 	 */
-	public Double[][] A;
-
-	private ArrayList<int[]> triples;
+	private final int[] tripleCount;
 
 	/**
 	 * The constructor for QuadracticBinaryFunction class. The filename of the
 	 * input for setting matrix of coefficients A of the QBFPT. The dimension of
 	 * the array of variables x is returned from the {@link #readInput} method.
+	 * The objective function itself is evaluated by {@link QBF}, this class
+	 * only adds the forbidden triples.
 	 * 
 	 * @param filename
 	 *            Name of the file containing the input for setting the QBFPT.
@@ -59,9 +57,46 @@ public class QBFPT implements Evaluator<Integer> {
 	 *             Necessary for I/O operations.
 	 */
 	public QBFPT(String filename) throws IOException {
-		size = readInput(filename);
-		variables = allocateVariables();
+		this(filename, 1.0);
+	}
+
+	/**
+	 * Creates the evaluator of the QBFPT read from a file, or of its inverse.
+	 * 
+	 * @param filename
+	 *            Name of the file containing the input for setting the QBFPT.
+	 * @param sign
+	 *            1 for the QBFPT, -1 for its inverse, see {@link QBF#sign}.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	protected QBFPT(String filename, double sign) throws IOException {
+		super(filename, sign);
 		triples = generate_triples();
+		elementTriples = index_triples();
+		tripleCount = new int[triples.size()];
+	}
+
+	/**
+	 * Creates an evaluator sharing the coefficients and forbidden triples of
+	 * another one, but with its own domain variables and triple counters.
+	 * 
+	 * @param qbfpt
+	 *            The evaluator whose problem data is shared.
+	 */
+	protected QBFPT(QBFPT qbfpt) {
+		super(qbfpt);
+		triples = qbfpt.triples;
+		elementTriples = qbfpt.elementTriples;
+		tripleCount = new int[triples.size()];
+	}
+
+	/**
+	 * {@inheritDoc} The forbidden triples are shared as well.
+	 */
+	@Override
+	public QBFPT fork() {
+		return new QBFPT(this);
 	}
 	
 	private int[] generate_triple_aux(int u, int n){
@@ -116,307 +151,110 @@ public class QBFPT implements Evaluator<Integer> {
 	}
 
 	/**
-	 * Test whether the solution obtained with the insertion of i will be feasible.
-	 * For this, checks triple restriction.
-	 * Checks if the 2 other elements of all triples with i are in the current solution.
-	 * @param i Value to check feasibility.
-	 * @return feasible: true if i is feasible, false otherwise.
+	 * Builds the incidence index of the forbidden triples, listing for each
+	 * element the triples it belongs to.
+	 * @return _elementTriples array with the triple indices of each element.
 	 */
-	public boolean is_feasible(int i){
-		boolean feasible = true;
-		double sum;
-		
-		// Check all triples.
-		for(int [] tuple : this.triples){
-			
-			// If the value is in a triple, check if triple is in the current solution.
-			if(i == tuple[0] || i == tuple[1] || i == tuple[2]){
-				sum = 0;
-				for(int k : tuple){
-					sum += this.variables[k];
-				}
-
-				//if there are 2 indices in a tuple that have already been set to 1
-				//and the index i isn't of theses indices, then set it to 1 will
-				//complete a prohibited tuple.
-				if(sum == 2.0 && this.variables[i] == 0.0){
-					feasible = false;
-					break;
-				}
-			}
+	private int[][] index_triples(){
+		int[] degree = new int[this.size];
+		for(int[] tuple : this.triples){
+			for(int k : tuple)
+				degree[k]++;
 		}
 
-		return feasible;
-	}
-
-	/**
-	 * Evaluates the value of a solution by transforming it into a vector. This
-	 * is required to perform the matrix multiplication which defines a QBFPT.
-	 * 
-	 * @param sol
-	 *            the solution which will be evaluated.
-	 */
-	public void setVariables(Solution<Integer> sol) {
-
-		resetVariables();
-		if (!sol.isEmpty()) {
-			for (Integer elem : sol) {
-				variables[elem] = 1.0;
-			}
+		int[][] _elementTriples = new int[this.size][];
+		for(int i=0; i < this.size; i++){
+			_elementTriples[i] = new int[degree[i]];
+			degree[i] = 0;
 		}
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see problems.Evaluator#getDomainSize()
-	 */
-	@Override
-	public Integer getDomainSize() {
-		return size;
-	}
-
-	/**
-	 * {@inheritDoc} In the case of a QBFPT, the evaluation correspond to
-	 * computing a matrix multiplication x'.A.x. A better way to evaluate this
-	 * function when at most two variables are modified is given by methods
-	 * {@link #evaluateInsertionQBFPT(int)}, {@link #evaluateRemovalQBFPT(int)} and
-	 * {@link #evaluateExchangeQBFPT(int,int)}.
-	 * 
-	 * @return The evaluation of the QBFPT.
-	 */
-	@Override
-	public Double evaluate(Solution<Integer> sol) {
-
-		setVariables(sol);
-		return sol.cost = evaluateQBFPT();
-
-	}
-
-	/**
-	 * Evaluates a QBFPT by calculating the matrix multiplication that defines the
-	 * QBFPT: f(x) = x'.A.x .
-	 * 
-	 * @return The value of the QBFPT.
-	 */
-	public Double evaluateQBFPT() {
-
-		Double aux = (double) 0, sum = (double) 0;
-		Double vecAux[] = new Double[size];
-
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				aux += variables[j] * A[i][j];
-			}
-			vecAux[i] = aux;
-			sum += aux * variables[i];
-			aux = (double) 0;
+		for(int t=0; t < this.triples.size(); t++){
+			for(int k : this.triples.get(t))
+				_elementTriples[k][degree[k]++] = t;
 		}
-
-		return sum;
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see problems.Evaluator#evaluateInsertionCost(java.lang.Object,
-	 * solutions.Solution)
-	 */
-	@Override
-	public Double evaluateInsertionCost(Integer elem, Solution<Integer> sol) {
-
-		setVariables(sol);
-		return evaluateInsertionQBFPT(elem);
-
+		return _elementTriples;
 	}
 
 	/**
-	 * Determines the contribution to the QBFPT objective function from the
-	 * insertion of an element.
-	 * 
-	 * @param i
-	 *            Index of the element being inserted into the solution.
-	 * @return The variation of the objective function resulting from the
-	 *         insertion.
+	 * Test whether the solution obtained with the insertion of i will be feasible.
+	 * For this, checks triple restriction.
+	 * Checks if the 2 other elements of any triple with i are in the current solution,
+	 * which only requires looking at the counters of the triples containing i.
+	 * @param i Value to check feasibility.
+	 * @return feasible: true if i is feasible, false otherwise.
 	 */
-	public Double evaluateInsertionQBFPT(int i) {
-
-		if (variables[i] == 1)
-			return 0.0;
-
-		return evaluateContributionQBFPT(i);
-	}
+	public boolean is_feasible(int i){
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see problems.Evaluator#evaluateRemovalCost(java.lang.Object,
-	 * solutions.Solution)
-	 */
-	@Override
-	public Double evaluateRemovalCost(Integer elem, Solution<Integer> sol) {
+		// Elements already in the solution are kept.
+		if(this.variables[i] == 1.0)
+			return true;
 
-		setVariables(sol);
-		return evaluateRemovalQBFPT(elem);
+		//if there are 2 indices in a tuple that have already been set to 1
+		//and the index i isn't of theses indices, then set it to 1 will
+		//complete a prohibited tuple.
+		for(int t : this.elementTriples[i]){
+			if(this.tripleCount[t] == 2)
+				return false;
+		}
 
+		return true;
 	}
 
 	/**
-	 * Determines the contribution to the QBFPT objective function from the
-	 * removal of an element.
-	 * 
-	 * @param i
-	 *            Index of the element being removed from the solution.
-	 * @return The variation of the objective function resulting from the
-	 *         removal.
-	 */
-	public Double evaluateRemovalQBFPT(int i) {
-
-		if (variables[i] == 0)
-			return 0.0;
-
-		return -evaluateContributionQBFPT(i);
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see problems.Evaluator#evaluateExchangeCost(java.lang.Object,
-	 * java.lang.Object, solutions.Solution)
+	 * Gives the forbidden triples containing an element.
+	 * @param i Element whose triples are requested.
+	 * @return indices of the triples containing i, which must not be modified.
 	 */
-	@Override
-	public Double evaluateExchangeCost(Integer elemIn, Integer elemOut, Solution<Integer> sol) {
-
-		setVariables(sol);
-		return evaluateExchangeQBFPT(elemIn, elemOut);
-
+	public int[] getTriplesOf(int i){
+		return this.elementTriples[i];
 	}
 
 	/**
-	 * Determines the contribution to the QBFPT objective function from the
-	 * exchange of two elements one belonging to the solution and the other not.
-	 * 
-	 * @param in
-	 *            The index of the element that is considered entering the
-	 *            solution.
-	 * @param out
-	 *            The index of the element that is considered exiting the
-	 *            solution.
-	 * @return The variation of the objective function resulting from the
-	 *         exchange.
+	 * Gives a forbidden triple.
+	 * @param t Index of the triple.
+	 * @return the sorted elements of the triple, which must not be modified.
 	 */
-	public Double evaluateExchangeQBFPT(int in, int out) {
-
-		Double sum = 0.0;
-
-		if (in == out)
-			return 0.0;
-		if (variables[in] == 1)
-			return evaluateRemovalQBFPT(out);
-		if (variables[out] == 0)
-			return evaluateInsertionQBFPT(in);
-
-		sum += evaluateContributionQBFPT(in);
-		sum -= evaluateContributionQBFPT(out);
-		sum -= (A[in][out] + A[out][in]);
-
-		return sum;
+	public int[] getTriple(int t){
+		return this.triples.get(t);
 	}
 
 	/**
-	 * Determines the contribution to the QBFPT objective function from the
-	 * insertion of an element. This method is faster than evaluating the whole
-	 * solution, since it uses the fact that only one line and one column from
-	 * matrix A needs to be evaluated when inserting a new element into the
-	 * solution. This method is different from {@link #evaluateInsertionQBFPT(int)},
-	 * since it disregards the fact that the element might already be in the
-	 * solution.
-	 * 
-	 * @param i
-	 *            index of the element being inserted into the solution.
-	 * @return the variation of the objective function resulting from the
-	 *         insertion.
+	 * Gives how many members of a forbidden triple are in the bound solution.
+	 * @param t Index of the triple.
+	 * @return number of members of t set to one.
 	 */
-	private Double evaluateContributionQBFPT(int i) {
-
-		Double sum = 0.0;
-
-		for (int j = 0; j < size; j++) {
-			if (i != j)
-				sum += variables[j] * (A[i][j] + A[j][i]);
-		}
-		sum += A[i][i];
-
-		return sum;
+	public int getTripleCount(int t){
+		return this.tripleCount[t];
 	}
 
 	/**
-	 * Responsible for setting the QBFPT function parameters by reading the
-	 * necessary input from an external file. This method reads the domain's
-	 * dimension and matrix {@link #A}.
-	 * 
-	 * @param filename
-	 *            Name of the file containing the input for setting the black
-	 *            box function.
-	 * @return The dimension of the domain.
-	 * @throws IOException
-	 *             Necessary for I/O operations.
+	 * {@inheritDoc} Also counts i as selected in the triples containing it.
 	 */
-	protected Integer readInput(String filename) throws IOException {
-
-		Reader fileInst = new BufferedReader(new FileReader(filename));
-		StreamTokenizer stok = new StreamTokenizer(fileInst);
-
-		stok.nextToken();
-		Integer _size = (int) stok.nval;
-		A = new Double[_size][_size];
-
-		for (int i = 0; i < _size; i++) {
-			for (int j = i; j < _size; j++) {
-				stok.nextToken();
-				A[i][j] = stok.nval;
-				if (j>i)
-					A[j][i] = 0.0;
-			}
-		}
-
-		return _size;
-
+	@Override
+	protected void insertVariable(int i) {
+		super.insertVariable(i);
+		for(int t : this.elementTriples[i])
+			this.tripleCount[t]++;
 	}
 
 	/**
-	 * Reserving the required memory for storing the values of the domain
-	 * variables.
-	 * 
-	 * @return a pointer to the array of domain variables.
+	 * {@inheritDoc} Also discounts i from the triples containing it.
 	 */
-	protected Double[] allocateVariables() {
-		Double[] _variables = new Double[size];
-		return _variables;
+	@Override
+	protected void removeVariable(int i) {
+		super.removeVariable(i);
+		for(int t : this.elementTriples[i])
+			this.tripleCount[t]--;
 	}
 
 	/**
-	 * Reset the domain variables to their default values.
+	 * {@inheritDoc} No triple has selected members afterwards.
 	 */
+	@Override
 	public void resetVariables() {
-		Arrays.fill(variables, 0.0);
-	}
-
-	/**
-	 * Prints matrix {@link #A}.
-	 */
-	public void printMatrix() {
-
-		for (int i = 0; i < size; i++) {
-			for (int j = i; j < size; j++) {
-				System.out.print(A[i][j] + " ");
-			}
-			System.out.println();
-		}
-
+		super.resetVariables();
+		// Called by the QBF constructor before the counters exist.
+		if(this.tripleCount != null)
+			Arrays.fill(this.tripleCount, 0);
 	}
 
 	public void printTriples(){
@@ -5,7 +5,8 @@ import java.io.IOException;
 /**
  * Class representing the inverse of the Quadractic Binary Function
  * ({@link QBFPT}), which is used since the GRASP is set by
- * default as a minimization procedure.
+ * default as a minimization procedure. Every value and cost variation of
+ * the function is negated by {@link problems.qbf.QBF}, through its sign.
  * 
  * @author ccavellucci, fusberti
  */
@@ -21,40 +22,26 @@ public class QBFPT_Inverse extends QBFPT {
 	 *             Necessary for I/O operations.
 	 */
 	public QBFPT_Inverse(String filename) throws IOException {
-		super(filename);
+		super(filename, -1.0);
 	}
 
-
-	/* (non-Javadoc)
-	 * @see problems.qbf.QBFPT#evaluate()
-	 */
-	@Override
-	public Double evaluateQBFPT() {
-		return -super.evaluateQBFPT();
-	}
-	
-	/* (non-Javadoc)
-	 * @see problems.qbf.QBFPT#evaluateInsertion(int)
-	 */
-	@Override
-	public Double evaluateInsertionQBFPT(int i) {
-		return -super.evaluateInsertionQBFPT(i);
-	}
-	
-	/* (non-Javadoc)
-	 * @see problems.qbf.QBFPT#evaluateRemoval(int)
+	/**
+	 * Creates an evaluator sharing the problem data of another one, but with
+	 * its own domain variables.
+	 * 
+	 * @param qbf
+	 *            The evaluator whose problem data is shared.
 	 */
-	@Override
-	public Double evaluateRemovalQBFPT(int i) {
-		return -super.evaluateRemovalQBFPT(i);
+	protected QBFPT_Inverse(QBFPT_Inverse qbf) {
+		super(qbf);
 	}
-	
+
 	/* (non-Javadoc)
-	 * @see problems.qbf.QBFPT#evaluateExchange(int, int)
+	 * @see problems.qbf.QBF#fork()
 	 */
 	@Override
-	public Double evaluateExchangeQBFPT(int in, int out) {
-		return -super.evaluateExchangeQBFPT(in,out);
+	public QBFPT_Inverse fork() {
+		return new QBFPT_Inverse(this);
 	}
 
 }
@@ -1,14 +1,19 @@
 package problems.qbfpt.solvers;
 
 import metaheuristics.grasp.AbstractGRASP;
+import metaheuristics.grasp.IndexedCandidateHeap;
+import metaheuristics.grasp.IntCandidateList;
+import metaheuristics.grasp.RankSampler;
+import metaheuristics.grasp.StoppingCriterion;
 import problems.qbfpt.QBFPT;
 import problems.qbfpt.QBFPT_Inverse;
+import solutions.BinarySolution;
 import solutions.Solution;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.stream.DoubleStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Metaheuristic GRASP (Greedy Randomized Adaptive Search Procedure) for
@@ -19,16 +24,22 @@ import java.util.stream.DoubleStream;
  * @author ccavellucci, fusberti, vferrari, gabrielsantosrv, satoru27
  */
 public class GRASP_QBFPT extends AbstractGRASP<Integer> {
-	private enum SearchStrategy {
+	public enum SearchStrategy {
 		FI,
-		BI
+		BI,
+		PBI
+	}
+
+	public enum RCLStrategy {
+		SCAN,
+		HEAP
 	}
 	
 	/**
 	 * Bias Function enum.
 	 * Provides bias functions for each enum value.
 	 */
-	private enum BiasFunction {
+	public enum BiasFunction {
 		RANDOM{
 			@Override double bias(final Integer i) {
 				return 1;
@@ -60,7 +71,8 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 
 	/**
 	 * Value to represent local search type.
-	 * Can be first-improving (FI) or best-improving (BI). 
+	 * Can be first-improving (FI), best-improving (BI) or parallel
+	 * best-improving (PBI). 
 	 */
 	private final SearchStrategy searchType;
 	
@@ -70,6 +82,37 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 	 * Default grasp uses RANDOM bias. 
 	 */
 	private final BiasFunction bF;
+
+	/**
+	 * Value to represent how the RCL is built at each construction step.
+	 * Can be a scan of the whole CL (SCAN) or an indexed min/max heap of the
+	 * candidates (HEAP), in which only the candidates interacting with the
+	 * inserted element are updated at each step.
+	 */
+	private final RCLStrategy rclType;
+
+	/**
+	 * the variables interacting with each variable, see
+	 * {@link QBFPT#interactions()}. Only used by the HEAP strategy.
+	 */
+	private final int[][] interactions;
+
+	/**
+	 * the candidates of the CL keyed by their insertion cost, only used by the
+	 * HEAP strategy.
+	 */
+	private IndexedCandidateHeap heap;
+
+	/**
+	 * the solution whose CL is kept in {@link #heap}, or null if the heap must
+	 * be rebuilt before its next use.
+	 */
+	private Solution<Integer> heapSol;
+
+	/**
+	 * the sampler of the RCL candidates according to the bias function.
+	 */
+	private final RankSampler sampler;
 	
 	/**
 	 * Constructor for the GRASP_QBFPT class. An inverse QBFPT objective function is
@@ -85,6 +128,10 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 	 *            should be read.
 	 * @param searchType
 	 * 			  Type of local search strategy to be used.
+	 * @param bF
+	 * 			  Bias function used to choose from the RCL.
+	 * @param rclType
+	 * 			  Strategy used to build the RCL.
 	 * @param constructionType
 	 * 				Type of construction to be used.
 	 * @param  rpgP
@@ -95,30 +142,52 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 	 */
 	public GRASP_QBFPT(Double alpha, Integer iterations, String filename, 
 					   SearchStrategy searchType, BiasFunction bF,
+					   RCLStrategy rclType,
 					   AbstractGRASP.Construction constructionType, int rpgP) 
 		   throws IOException {
 		
 		super(new QBFPT_Inverse(filename), alpha, iterations, constructionType, rpgP);
 		this.searchType = searchType;
 		this.bF = bF;
+		this.rclType = rclType;
+		this.interactions = (rclType == RCLStrategy.HEAP) ? ((QBFPT) ObjFunction).interactions() : null;
+		this.sampler = new RankSampler(bF::bias, ObjFunction.getDomainSize());
+	}
+
+	/**
+	 * Copy constructor for the GRASP_QBFPT class, see
+	 * {@link AbstractGRASP#AbstractGRASP(AbstractGRASP)}.
+	 * 
+	 * @param grasp
+	 *            The solver being copied.
+	 */
+	private GRASP_QBFPT(GRASP_QBFPT grasp) {
+		super(grasp);
+		this.searchType = grasp.searchType;
+		this.bF = grasp.bF;
+		this.rclType = grasp.rclType;
+		this.interactions = grasp.interactions;
+		this.sampler = new RankSampler(grasp.sampler);
 	}
 
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see grasp.abstracts.AbstractGRASP#makeCL()
+	 * @see grasp.abstracts.AbstractGRASP#copy()
 	 */
 	@Override
-	public ArrayList<Integer> makeCL() {
-
-		ArrayList<Integer> _CL = new ArrayList<Integer>();
-		for (int i = 0; i < ObjFunction.getDomainSize(); i++) {
-			Integer cand = i;
-			_CL.add(cand);
-		}
-
-		return _CL;
+	protected GRASP_QBFPT copy() {
+		return new GRASP_QBFPT(this);
+	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see grasp.abstracts.AbstractGRASP#makeCL()
+	 */
+	@Override
+	public IntCandidateList makeCL() {
+		return IntCandidateList.full(ObjFunction.getDomainSize());
 	}
 
 	/*
@@ -138,24 +207,166 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 	 */
 	@Override
 	public void updateCL() {
-		ArrayList<Integer> CL_copy = new ArrayList<>(this.CL);
-		for (Integer c : CL_copy){
-			if(!((QBFPT)this.ObjFunction).is_feasible(c)){
-				this.CL.remove(c);
+
+		// do nothing since the CL is updated by each applied move, see
+		// insertCandidate, removeCandidate and exchangeCandidates.
+
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Only the candidates sharing a forbidden triple with the inserted element
+	 * may become infeasible, so only those are looked at.
+	 */
+	@Override
+	protected void insertCandidate(Integer in) {
+		session.insert(in);
+		candidateList().removeElement(in);
+		pruneCL(in);
+		if (heapSol == currentSol)
+			updateHeap(in);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Only the removed element and the candidates sharing a forbidden triple
+	 * with it may become feasible again, so only those are looked at.
+	 */
+	@Override
+	protected void removeCandidate(Integer out) {
+		session.remove(out);
+		restoreCL(out);
+		heapSol = null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see grasp.abstracts.AbstractGRASP#exchangeCandidates()
+	 */
+	@Override
+	protected void exchangeCandidates(Integer in, Integer out) {
+		session.exchange(in, out);
+		candidateList().removeElement(in);
+		restoreCL(out);
+		pruneCL(in);
+		heapSol = null;
+	}
+
+	/**
+	 * Removes from the CL the candidates that would complete a forbidden triple
+	 * together with a newly inserted element.
+	 * 
+	 * @param in
+	 *            The element that entered the solution.
+	 */
+	private void pruneCL(int in) {
+		QBFPT qbfpt = (QBFPT) ObjFunction;
+		IntCandidateList _CL = candidateList();
+
+		for (int t : qbfpt.getTriplesOf(in)) {
+			if (qbfpt.getTripleCount(t) < 2)
+				continue;
+			for (int k : qbfpt.getTriple(t)) {
+				if (qbfpt.variables[k] == 0)
+					_CL.removeElement(k);
+			}
+		}
+	}
+
+	/**
+	 * Gives back to the CL the removed element and the candidates that were
+	 * only blocked by forbidden triples containing it.
+	 * 
+	 * @param out
+	 *            The element that left the solution.
+	 */
+	private void restoreCL(int out) {
+		QBFPT qbfpt = (QBFPT) ObjFunction;
+		IntCandidateList _CL = candidateList();
+
+		if (qbfpt.is_feasible(out))
+			_CL.addElement(out);
+		for (int t : qbfpt.getTriplesOf(out)) {
+			for (int k : qbfpt.getTriple(t)) {
+				if (k != out && qbfpt.variables[k] == 0 && qbfpt.is_feasible(k))
+					_CL.addElement(k);
 			}
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * With the HEAP strategy the candidates are kept in an indexed min/max
+	 * heap, so the lowest and highest costs are read in O(1) and only the
+	 * candidates within the threshold are visited. The heap is built from the
+	 * CL at the first step of each construction and then kept up to date by
+	 * {@link #insertCandidate(Integer)}.
+	 */
+	@Override
+	protected void buildRCL() {
+
+		if (rclType == RCLStrategy.SCAN) {
+			super.buildRCL();
+			return;
+		}
+
+		if (heapSol != currentSol) {
+			IntCandidateList _CL = candidateList();
+			if (heap == null)
+				heap = new IndexedCandidateHeap(ObjFunction.getDomainSize());
+			session.evaluateInsertionCosts(_CL, rclCosts);
+			heap.build(_CL.elements(), rclCosts, _CL.size());
+			heapSol = currentSol;
+		}
+
+		double minCost = heap.minCost(), maxCost = heap.maxCost();
+		heap.collect(minCost + alpha * (maxCost - minCost), RCL, rclCosts);
+	}
+
+	/**
+	 * Updates the heap after an insertion, removing the inserted element and
+	 * the candidates pruned from the CL, and updating the cost of the
+	 * candidates that interact with the inserted element.
+	 * 
+	 * @param in
+	 *            The element that entered the solution.
+	 */
+	private void updateHeap(int in) {
+		QBFPT qbfpt = (QBFPT) ObjFunction;
+		IntCandidateList _CL = candidateList();
+
+		heap.remove(in);
+		for (int t : qbfpt.getTriplesOf(in)) {
+			for (int k : qbfpt.getTriple(t)) {
+				if (!_CL.containsElement(k))
+					heap.remove(k);
+			}
+		}
+		for (int j : interactions[in]) {
+			if (heap.contains(j))
+				heap.update(j, session.evaluateInsertionCost(j));
+		}
+	}
+
+	private IntCandidateList candidateList() {
+		return (IntCandidateList) CL;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
 	 * This createEmptySol instantiates an empty solution and it attributes a
 	 * zero cost, since it is known that a QBFPT solution with all variables set
-	 * to zero has also zero cost.
+	 * to zero has also zero cost. The solution is a {@link BinarySolution},
+	 * since elements are the indices of the QBFPT variables.
 	 */
 	@Override
 	public Solution<Integer> createEmptySol() {
-		Solution<Integer> sol = new Solution<Integer>();
+		Solution<Integer> sol = new BinarySolution(ObjFunction.getDomainSize());
 		sol.cost = 0.0;
 		return sol;
 	}
@@ -169,10 +380,15 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 	@Override
 	public Solution<Integer> localSearch(){
 		Solution<Integer> sol;
+
+		// The RCL heap is only kept up to date during the construction.
+		heapSol = null;
 		
 		// Check local search method.
 		if (this.searchType == SearchStrategy.BI)
 			sol = localSearchBestImproving();
+		else if (this.searchType == SearchStrategy.PBI)
+			sol = localSearchParallelBestImproving();
 		else
 			sol = localSearchFirstImproving();
 	
@@ -187,14 +403,22 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 		Double minDeltaCost;
 		Integer bestCandIn = null, bestCandOut = null;
 		double deltaCost;
+		double[] costs = new double[ObjFunction.getDomainSize()];
+		int k;
 
 		do {
 			minDeltaCost = Double.POSITIVE_INFINITY;
 			updateCL();
+
+			// Stop at the current solution if the deadline was reached.
+			if (deadlineReached(CL.size() + currentSol.size()))
+				return null;
 				
 			// Evaluate insertions
+			session.evaluateInsertionCosts(CL, costs);
+			k = 0;
 			for (Integer candIn : CL) {
-				deltaCost = ObjFunction.evaluateInsertionCost(candIn, currentSol);
+				deltaCost = costs[k++];
 				if (deltaCost < minDeltaCost) {
 					minDeltaCost = deltaCost;
 					bestCandIn = candIn;
@@ -202,8 +426,10 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 				}
 			}
 			// Evaluate removals
+			session.evaluateRemovalCosts(currentSol, costs);
+			k = 0;
 			for (Integer candOut : currentSol) {
-				deltaCost = ObjFunction.evaluateRemovalCost(candOut, currentSol);
+				deltaCost = costs[k++];
 				if (deltaCost < minDeltaCost) {
 					minDeltaCost = deltaCost;
 					bestCandIn = null;
@@ -212,8 +438,12 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 			}
 			// Evaluate exchanges
 			for (Integer candIn : CL) {
+				if (deadlineReached(currentSol.size()))
+					return null;
+				session.evaluateExchangeCosts(candIn, currentSol, costs);
+				k = 0;
 				for (Integer candOut : currentSol) {
-					deltaCost = ObjFunction.evaluateExchangeCost(candIn, candOut, currentSol);
+					deltaCost = costs[k++];
 					if (deltaCost < minDeltaCost) {
 						minDeltaCost = deltaCost;
 						bestCandIn = candIn;
@@ -223,21 +453,147 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 			}
 			// Implement the best move, if it reduces the solution cost.
 			if (minDeltaCost < -Double.MIN_VALUE) {
-				if (bestCandOut != null) {
-					currentSol.remove(bestCandOut);
-					CL.add(bestCandOut);
-				}
-				if (bestCandIn != null) {
-					currentSol.add(bestCandIn);
-					CL.remove(bestCandIn);
+				if (bestCandOut != null && bestCandIn != null) {
+					exchangeCandidates(bestCandIn, bestCandOut);
+				} else if (bestCandOut != null) {
+					removeCandidate(bestCandOut);
+				} else {
+					insertCandidate(bestCandIn);
 				}
-				ObjFunction.evaluate(currentSol);
 			}
 		} while (minDeltaCost < -Double.MIN_VALUE);
 
 		return null;
 	}
 	
+	/**
+	 * Parallel Best-Improving local search. It explores the same neighborhood
+	 * as {@link #localSearchBestImproving()}, but the moves are split among the
+	 * threads of the common ForkJoinPool. Each split keeps its best move and
+	 * ties are broken in favor of the move the sequential scan would visit
+	 * first, so the result does not depend on the number of threads.
+	 */
+	private Solution<Integer> localSearchParallelBestImproving() {
+
+		QBFPT qbfpt = (QBFPT) ObjFunction;
+		NeighborhoodScan.Move best;
+
+		do {
+			updateCL();
+			qbfpt.setVariables(currentSol);
+
+			int[] in = candidateList().elements();
+			int[] out = ((BinarySolution) currentSol).elements();
+			int nIn = CL.size(), nOut = currentSol.size();
+			long moves = nIn + nOut + (long) nIn * nOut;
+
+			// The scan is not interrupted, the deadline is checked before it.
+			if (deadlineReached(moves))
+				return null;
+			best = ForkJoinPool.commonPool().invoke(
+					new NeighborhoodScan(qbfpt, in, nIn, out, nOut, 0, moves));
+
+			// Implement the best move, if it reduces the solution cost.
+			if (best.deltaCost < -Double.MIN_VALUE) {
+				long k = best.index;
+				if (k < nIn) {
+					insertCandidate(in[(int) k]);
+				} else if (k < nIn + nOut) {
+					removeCandidate(out[(int) (k - nIn)]);
+				} else {
+					k -= nIn + nOut;
+					exchangeCandidates(in[(int) (k / nOut)], out[(int) (k % nOut)]);
+				}
+			}
+		} while (best.deltaCost < -Double.MIN_VALUE);
+
+		return null;
+	}
+
+	/**
+	 * Task that finds the best move within a range of the neighborhood of the
+	 * best-improving local search. Moves are numbered in the order the
+	 * sequential scan visits them: first the insertions of the candidates in
+	 * the CL, then the removals of the elements in the solution and then the
+	 * exchanges, row by row. The evaluator is only read, so it must be bound to
+	 * the current solution before the scan.
+	 */
+	@SuppressWarnings("serial")
+	private static class NeighborhoodScan extends RecursiveTask<NeighborhoodScan.Move> {
+
+		/**
+		 * Number of moves below which a range is scanned sequentially.
+		 */
+		private static final long GRAIN = 1 << 12;
+
+		/**
+		 * The best move of a range, i.e., the one with the smallest cost
+		 * variation and, among those, the smallest index.
+		 */
+		static class Move {
+			final double deltaCost;
+			final long index;
+
+			Move(double deltaCost, long index) {
+				this.deltaCost = deltaCost;
+				this.index = index;
+			}
+		}
+
+		private final QBFPT qbfpt;
+		private final int[] in, out;
+		private final int nIn, nOut;
+		private final long from, to;
+
+		NeighborhoodScan(QBFPT qbfpt, int[] in, int nIn, int[] out, int nOut, long from, long to) {
+			this.qbfpt = qbfpt;
+			this.in = in;
+			this.nIn = nIn;
+			this.out = out;
+			this.nOut = nOut;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Move compute() {
+			if (to - from <= GRAIN)
+				return scan();
+
+			long mid = (from + to) >>> 1;
+			NeighborhoodScan left = new NeighborhoodScan(qbfpt, in, nIn, out, nOut, from, mid);
+			NeighborhoodScan right = new NeighborhoodScan(qbfpt, in, nIn, out, nOut, mid, to);
+			left.fork();
+			Move rightBest = right.compute();
+			Move leftBest = left.join();
+
+			return (rightBest.deltaCost < leftBest.deltaCost) ? rightBest : leftBest;
+		}
+
+		private Move scan() {
+			double minDeltaCost = Double.POSITIVE_INFINITY, deltaCost;
+			long bestIndex = -1;
+
+			for (long k = from; k < to; k++) {
+				if (k < nIn) {
+					deltaCost = qbfpt.evaluateInsertionQBF(in[(int) k]);
+				} else if (k < nIn + nOut) {
+					deltaCost = qbfpt.evaluateRemovalQBF(out[(int) (k - nIn)]);
+				} else {
+					long e = k - nIn - nOut;
+					deltaCost = qbfpt.evaluateExchangeQBF(in[(int) (e / nOut)], out[(int) (e % nOut)]);
+				}
+				if (deltaCost < minDeltaCost) {
+					minDeltaCost = deltaCost;
+					bestIndex = k;
+				}
+			}
+
+			return new Move(minDeltaCost, bestIndex);
+		}
+
+	}
+
 	/**
 	 * First-Improving local search.
 	 */
@@ -246,15 +602,23 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 		Double minDeltaCost;
 		Integer firstCandIn = null, firstCandOut = null;
 		double deltaCost;
+		double[] costs = new double[ObjFunction.getDomainSize()];
+		int k;
 		boolean done=false;
 
 		do {
 			minDeltaCost = 0.0;
 			updateCL();
+
+			// Stop at the current solution if the deadline was reached.
+			if (deadlineReached(CL.size() + currentSol.size()))
+				return null;
 				
 			// Evaluate insertions
+			session.evaluateInsertionCosts(CL, costs);
+			k = 0;
 			for (Integer candIn : CL) {
-				deltaCost = ObjFunction.evaluateInsertionCost(candIn, currentSol);
+				deltaCost = costs[k++];
 				if (deltaCost < minDeltaCost) {
 					minDeltaCost = deltaCost;
 					firstCandIn = candIn;
@@ -264,8 +628,10 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 			}
 			
 			// Evaluate removals
+			session.evaluateRemovalCosts(currentSol, costs);
+			k = 0;
 			for (Integer candOut : currentSol) {
-				deltaCost = ObjFunction.evaluateRemovalCost(candOut, currentSol);
+				deltaCost = costs[k++];
 				if (deltaCost < minDeltaCost) {
 					minDeltaCost = deltaCost;
 					firstCandIn = null;
@@ -276,8 +642,12 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 			
 			// Evaluate exchanges
 			for (Integer candIn : CL) {
+				if (deadlineReached(currentSol.size()))
+					return null;
+				session.evaluateExchangeCosts(candIn, currentSol, costs);
+				k = 0;
 				for (Integer candOut : currentSol) {
-					deltaCost = ObjFunction.evaluateExchangeCost(candIn, candOut, currentSol);
+					deltaCost = costs[k++];
 					if (deltaCost < minDeltaCost) {
 						minDeltaCost = deltaCost;
 						firstCandIn = candIn;
@@ -290,15 +660,13 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 			}
 			// Implement the best first move, if it reduces the solution cost.
 			if (minDeltaCost < -Double.MIN_VALUE) {
-				if (firstCandOut != null) {
-					currentSol.remove(firstCandOut);
-					CL.add(firstCandOut);
-				}
-				if (firstCandIn != null) {
-					currentSol.add(firstCandIn);
-					CL.remove(firstCandIn);
+				if (firstCandOut != null && firstCandIn != null) {
+					exchangeCandidates(firstCandIn, firstCandOut);
+				} else if (firstCandOut != null) {
+					removeCandidate(firstCandOut);
+				} else {
+					insertCandidate(firstCandIn);
 				}
-				ObjFunction.evaluate(currentSol);
 			}
 		} while (minDeltaCost < -Double.MIN_VALUE);
 
@@ -308,49 +676,33 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 	/**
 	 * {@inheritDoc}
 	 * 
-	 * The QBFPT random choice follows a bias function.
-	 * Get the bias for each value, calculate probability, and choose element.
+	 * The QBFPT random choice follows a bias function over the rank of the
+	 * candidates, ranked by the insertion costs cached in {@link #rclCosts}.
+	 * With the RANDOM bias every rank is equally likely, so the candidate is
+	 * drawn directly; otherwise the rank is drawn by the {@link #sampler} and
+	 * only the candidate holding it is selected, without sorting the RCL.
 	 */
 	@Override
 	public Integer chooseRandom(){
-		double probs[] = new double[RCL.size()];
-		double totalBias = 0;
-		int i;
-		
-		// Rank (sort) RCL
-		RCL.sort(Comparator.comparingDouble(x -> ObjFunction.evaluateInsertionCost(x, currentSol)));
-		
-		// Get bias.
-		for(i=0; i<RCL.size(); i++) {
-			probs[i] = bF.bias(i+1);
-			totalBias += probs[i];
-		}
-		
-		// Calculate probabilities.
-		final double biasSum = totalBias;
-		probs = DoubleStream.of(probs).map(p->p/biasSum).toArray();
-		
-		// Get random value from weighted probs.
-		int rndIndex=0;
-		double rndValue = rng.nextDouble();
-		for(i=0; i<RCL.size(); i++) {
-			if(rndValue < probs[i]) {
-				rndIndex = i;
-				break;
-			}
-			rndValue -= probs[i];
-		}
+		if (bF == BiasFunction.RANDOM)
+			return RCL.get(rng.nextInt(RCL.size()));
 		
-		return RCL.get(rndIndex);
+		return RCL.get(sampler.sample(rclCosts, RCL.size(), rng.nextDouble()));
 	}
 	
 	/**
-	 * Run GRASP for QBFPT.
+	 * Run GRASP for QBFPT, using the given number of parallel workers. Besides
+	 * maxIt and maxTime, the run stops when the given criterion is met, e.g.
+	 * StoppingCriterion.target(-cost) to stop at a known optimum, or
+	 * StoppingCriterion.stagnation(n) after n iterations without improvement
+	 * (see {@link StoppingCriterion}).
 	 */
 	public static void run(double alpha, int maxIt, String filename,
 						   SearchStrategy searchType, BiasFunction biasType,
+						   RCLStrategy rclType,
 						   AbstractGRASP.Construction constrMethod, int rpgP,
-						   double maxTime) 
+						   double maxTime, int workers,
+						   StoppingCriterion stop) 
 					   throws IOException {
 		
 		long startTime = System.currentTimeMillis();
@@ -359,10 +711,12 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 											filename, 
 											searchType,
 											biasType,
+											rclType,
 											constrMethod,
 											rpgP);
+		grasp.setStoppingCriterion(stop);
 		
-		Solution<Integer> bestSol = grasp.solve(maxTime);
+		Solution<Integer> bestSol = grasp.solve(maxTime, workers);
 		System.out.println("maxVal = " + bestSol);
 
 		long endTime   = System.currentTimeMillis();
@@ -373,16 +727,18 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 	public static void testAll(double alpha, int maxIt,
 							   SearchStrategy searchType, 
 							   BiasFunction biasType,
+							   RCLStrategy rclType,
 							   AbstractGRASP.Construction constrMethod, 
-							   int rpgP, double maxTime) 
+							   int rpgP, double maxTime, int workers,
+							   StoppingCriterion stop) 
 					   throws IOException {
 		
 		String inst[] = {"020", "040", "060", "080", "100", "200", "400"};
 		
 		for(String file : inst) {
 			GRASP_QBFPT.run(alpha, maxIt, "instances/qbf" + file, 
-							searchType, biasType, constrMethod,
-							rpgP, maxTime);
+							searchType, biasType, rclType, constrMethod,
+							rpgP, maxTime, workers, stop);
 		}
 	}
 	
@@ -395,6 +751,9 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 		double maxTime = 1800.0;
 		int maxIterations = 1000;
 		int rpgP = 2;
+		int workers = 1;
+		RCLStrategy rclType = RCLStrategy.SCAN;
+		StoppingCriterion stop = StoppingCriterion.never();
 		
 		// Changeable parameters.
 		double alpha1 = 0.25, alpha2 = 0.7;
@@ -402,31 +761,36 @@ public class GRASP_QBFPT extends AbstractGRASP<Integer> {
 		// 1 - Testing default/alpha1/best-improving/random bias.
 		GRASP_QBFPT.testAll(alpha1, maxIterations, SearchStrategy.BI, 
 							BiasFunction.RANDOM,
+							rclType,
 							AbstractGRASP.Construction.DEF, 
-							rpgP, maxTime);
+							rpgP, maxTime, workers, stop);
 
 		// 2 - Testing default/alpha1/best-improving/linear bias.
 		GRASP_QBFPT.testAll(alpha1, maxIterations, SearchStrategy.BI, 
 							BiasFunction.LINEAR,
+							rclType,
 							AbstractGRASP.Construction.DEF, 
-							rpgP, maxTime);
+							rpgP, maxTime, workers, stop);
 		
 		// 3 - Testing default/alpha2/best-improving/linear bias.
 		GRASP_QBFPT.testAll(alpha2, maxIterations, SearchStrategy.BI, 
 							BiasFunction.LINEAR,
+							rclType,
 							AbstractGRASP.Construction.DEF, 
-							rpgP, maxTime);
+							rpgP, maxTime, workers, stop);
 
 		// 4 - Testing RPG/best-improving/linear bias.
 		GRASP_QBFPT.testAll(alpha1, maxIterations, SearchStrategy.BI, 
 							BiasFunction.LINEAR,
+							rclType,
 							AbstractGRASP.Construction.RPG, 
-							rpgP, maxTime);
+							rpgP, maxTime, workers, stop);
 
 		// 5 - Testing RPG/first-improving/linear bias.
 		GRASP_QBFPT.testAll(alpha1, maxIterations, SearchStrategy.FI, 
 							BiasFunction.LINEAR,
+							rclType,
 							AbstractGRASP.Construction.RPG, 
-							rpgP, maxTime);		
+							rpgP, maxTime, workers, stop);		
 	}
 }
@@ -0,0 +1,478 @@
+package solutions;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Solution for problems whose elements are the integers of a domain [0, n),
+ * i.e., binary problems where each element is either in the solution or not.
+ * Membership is kept in a bitset and the members in a dense int array together
+ * with the position of each member in it, so insertion, removal and membership
+ * tests are O(1) and no element is boxed. Removal moves the last member into
+ * the freed position, hence the iteration order is the insertion order only
+ * until the first removal.
+ *
+ * The solution is still a {@link Solution}, but positional modifications
+ * (set, add at an index, sort, ...) are not supported.
+ *
+ * Copies (see {@link #copy()}) only hold the members, in O(|S|) time and
+ * memory, since they are mostly kept as snapshots of the incumbent. The
+ * bitset and the positions are rebuilt the first time a copy is queried for
+ * membership or modified.
+ *
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+@SuppressWarnings("serial")
+public class BinarySolution extends Solution<Integer> implements IntElements {
+
+	/**
+	 * the number of elements of the domain.
+	 */
+	private final int domainSize;
+
+	/**
+	 * bitset with the members of the solution, or null in a compact copy.
+	 */
+	private long[] bits;
+
+	/**
+	 * the members of the solution, only the first {@link #size} are valid.
+	 */
+	private int[] members;
+
+	/**
+	 * the position of each domain element in {@link #members}, only valid for
+	 * members of the solution, or null in a compact copy.
+	 */
+	private int[] position;
+
+	/**
+	 * the number of members of the solution.
+	 */
+	private int size;
+
+	/**
+	 * Creates an empty solution.
+	 *
+	 * @param domainSize
+	 *            the number of elements of the domain.
+	 */
+	public BinarySolution(int domainSize) {
+		super();
+		this.domainSize = domainSize;
+		bits = new long[(domainSize + 63) >>> 6];
+		members = new int[domainSize];
+		position = new int[domainSize];
+	}
+
+	/**
+	 * Creates a compact copy of a solution, including its cost, holding only
+	 * its members.
+	 *
+	 * @param sol
+	 *            the solution being copied.
+	 */
+	public BinarySolution(BinarySolution sol) {
+		super();
+		domainSize = sol.domainSize;
+		members = Arrays.copyOf(sol.members, sol.size);
+		size = sol.size;
+		cost = sol.cost;
+	}
+
+	/**
+	 * {@inheritDoc} The copy shares no state with this solution, its elements
+	 * are not boxed and it takes O(|S|) time and memory.
+	 */
+	@Override
+	public BinarySolution copy() {
+		return new BinarySolution(this);
+	}
+
+	/**
+	 * Gives the number of elements of the domain.
+	 *
+	 * @return the domain size.
+	 */
+	public int getDomainSize() {
+		return domainSize;
+	}
+
+	/**
+	 * Rebuilds the bitset and the positions of a compact copy.
+	 */
+	private void expand() {
+		bits = new long[(domainSize + 63) >>> 6];
+		position = new int[domainSize];
+		members = Arrays.copyOf(members, domainSize);
+		for (int i = 0; i < size; i++) {
+			int elem = members[i];
+			bits[elem >>> 6] |= 1L << elem;
+			position[elem] = i;
+		}
+	}
+
+	/**
+	 * Tests whether an element is in the solution.
+	 *
+	 * @param elem
+	 *            the element being tested.
+	 * @return true if the element is in the solution.
+	 */
+	public boolean containsElement(int elem) {
+		if (bits == null)
+			expand();
+		return (bits[elem >>> 6] & (1L << elem)) != 0;
+	}
+
+	/**
+	 * Inserts an element into the solution, unless it is already there.
+	 *
+	 * @param elem
+	 *            the element being inserted.
+	 * @return true if the solution changed.
+	 */
+	public boolean addElement(int elem) {
+		if (containsElement(elem))
+			return false;
+		bits[elem >>> 6] |= 1L << elem;
+		position[elem] = size;
+		members[size++] = elem;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Removes an element from the solution, if it is there.
+	 *
+	 * @param elem
+	 *            the element being removed.
+	 * @return true if the solution changed.
+	 */
+	public boolean removeElement(int elem) {
+		if (!containsElement(elem))
+			return false;
+		removeAt(position[elem]);
+		return true;
+	}
+
+	@Override
+	public int[] elements() {
+		return members;
+	}
+
+	private int removeAt(int pos) {
+		if (bits == null)
+			expand();
+		int elem = members[pos];
+		int last = members[--size];
+		members[pos] = last;
+		position[last] = pos;
+		bits[elem >>> 6] &= ~(1L << elem);
+		modCount++;
+		return elem;
+	}
+
+	private boolean inDomain(Object o) {
+		return (o instanceof Integer) && (Integer) o >= 0 && (Integer) o < domainSize;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public Integer get(int index) {
+		checkIndex(index);
+		return members[index];
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return inDomain(o) && containsElement((Integer) o);
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		return contains(o) ? position[(Integer) o] : -1;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	@Override
+	public boolean add(Integer elem) {
+		return addElement(elem);
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Integer> c) {
+		boolean changed = false;
+		for (Integer elem : c) {
+			changed |= addElement(elem);
+		}
+		return changed;
+	}
+
+	@Override
+	public Integer remove(int index) {
+		checkIndex(index);
+		return removeAt(index);
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		return inDomain(o) && removeElement((Integer) o);
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super Integer> filter) {
+		boolean changed = false;
+		for (int i = size - 1; i >= 0; i--) {
+			if (filter.test(members[i])) {
+				removeAt(i);
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		return removeIf(c::contains);
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		return removeIf(elem -> !c.contains(elem));
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; bits != null && i < size; i++) {
+			bits[members[i] >>> 6] = 0;
+		}
+		size = 0;
+		modCount++;
+	}
+
+	@Override
+	public Object[] toArray() {
+		Object[] array = new Object[size];
+		for (int i = 0; i < size; i++) {
+			array[i] = members[i];
+		}
+		return array;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T[] toArray(T[] a) {
+		T[] array = (a.length >= size) ? a
+				: (T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
+		for (int i = 0; i < size; i++) {
+			array[i] = (T) (Integer) members[i];
+		}
+		if (array.length > size)
+			array[size] = null;
+		return array;
+	}
+
+	@Override
+	public Iterator<Integer> iterator() {
+		return listIterator();
+	}
+
+	@Override
+	public ListIterator<Integer> listIterator() {
+		return listIterator(0);
+	}
+
+	@Override
+	public ListIterator<Integer> listIterator(int index) {
+		if (index < 0 || index > size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		return new MemberIterator(index);
+	}
+
+	@Override
+	public void forEach(Consumer<? super Integer> action) {
+		int expectedModCount = modCount;
+		for (int i = 0; i < size; i++) {
+			action.accept(members[i]);
+		}
+		if (modCount != expectedModCount)
+			throw new ConcurrentModificationException();
+	}
+
+	@Override
+	public Spliterator<Integer> spliterator() {
+		return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		if (!(o instanceof List))
+			return false;
+		List<?> other = (List<?>) o;
+		if (other.size() != size)
+			return false;
+		Iterator<?> it = other.iterator();
+		for (int i = 0; i < size; i++) {
+			if (!Integer.valueOf(members[i]).equals(it.next()))
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hashCode = 1;
+		for (int i = 0; i < size; i++) {
+			hashCode = 31 * hashCode + members[i];
+		}
+		return hashCode;
+	}
+
+	@Override
+	public Object clone() {
+		return copy();
+	}
+
+	@Override
+	public Integer set(int index, Integer element) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void add(int index, Integer element) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends Integer> c) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public List<Integer> subList(int fromIndex, int toIndex) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void sort(Comparator<? super Integer> c) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void replaceAll(UnaryOperator<Integer> operator) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Iterator over the members. Removing through the iterator moves the last
+	 * member into the current position, which is visited next.
+	 */
+	private class MemberIterator implements ListIterator<Integer> {
+
+		private int cursor;
+		private int lastRet = -1;
+		private int expectedModCount = modCount;
+
+		MemberIterator(int index) {
+			cursor = index;
+		}
+
+		private void checkForComodification() {
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return cursor < size;
+		}
+
+		@Override
+		public Integer next() {
+			checkForComodification();
+			if (cursor >= size)
+				throw new NoSuchElementException();
+			lastRet = cursor++;
+			return members[lastRet];
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			return cursor > 0;
+		}
+
+		@Override
+		public Integer previous() {
+			checkForComodification();
+			if (cursor <= 0)
+				throw new NoSuchElementException();
+			lastRet = --cursor;
+			return members[lastRet];
+		}
+
+		@Override
+		public int nextIndex() {
+			return cursor;
+		}
+
+		@Override
+		public int previousIndex() {
+			return cursor - 1;
+		}
+
+		@Override
+		public void remove() {
+			if (lastRet < 0)
+				throw new IllegalStateException();
+			checkForComodification();
+			removeAt(lastRet);
+			cursor = lastRet;
+			lastRet = -1;
+			expectedModCount = modCount;
+		}
+
+		@Override
+		public void set(Integer e) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void add(Integer e) {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+}
@@ -0,0 +1,26 @@
+package solutions;
+
+/**
+ * A collection of integer elements backed by a dense int array, so that its
+ * elements can be read in bulk without unboxing.
+ * 
+ * @author vferrari, gabrielsantosrv, satoru27
+ */
+public interface IntElements {
+
+	/**
+	 * Gives the array backing the collection. Only its first {@link #size()}
+	 * positions are elements of the collection, and it must not be modified.
+	 * 
+	 * @return the elements of the collection.
+	 */
+	public abstract int[] elements();
+
+	/**
+	 * Gives the number of elements in the collection.
+	 * 
+	 * @return the size of the collection.
+	 */
+	public abstract int size();
+
+}
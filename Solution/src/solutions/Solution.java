@@ -16,6 +16,27 @@ public class Solution<E> extends ArrayList<E> {
 		cost = sol.cost;
 	}
 
+	/**
+	 * Creates a copy of this solution, including its cost, which is not
+	 * affected by later changes to this solution.
+	 * 
+	 * @return a copy of the solution.
+	 */
+	public Solution<E> copy() {
+		return new Solution<E>(this);
+	}
+
+	/**
+	 * Gives a number that changes whenever elements are added to or removed
+	 * from the solution, so evaluators can tell whether the solution changed
+	 * since they last looked at it.
+	 * 
+	 * @return the current version of the solution.
+	 */
+	public int getVersion() {
+		return modCount;
+	}
+
 	@Override
 	public String toString() {
 		return "Solution: cost=[" + cost + "], size=[" + this.size() + "], elements=" + super.toString();